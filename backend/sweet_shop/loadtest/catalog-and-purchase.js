@@ -0,0 +1,62 @@
+// k6 load test for GET /api/sweets and POST /api/sweets/{id}/purchase.
+//
+// Run once per execution mode and compare the summaries (http_reqs/s and p(99)):
+//   ./mvnw spring-boot:run                                              # platform threads
+//   ./mvnw spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+//   k6 run -e USERNAME=admin -e PASSWORD=secret -e SWEET_ID=1 loadtest/catalog-and-purchase.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const SWEET_ID = __ENV.SWEET_ID || '1';
+
+export const options = {
+    scenarios: {
+        browse: {
+            executor: 'constant-arrival-rate',
+            exec: 'browse',
+            rate: Number(__ENV.BROWSE_RPS || 2000),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 500,
+            maxVUs: 5000,
+        },
+        purchase: {
+            executor: 'constant-arrival-rate',
+            exec: 'purchase',
+            rate: Number(__ENV.PURCHASE_RPS || 200),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 100,
+            maxVUs: 1000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{scenario:browse}': ['p(99)<250'],
+        'http_req_duration{scenario:purchase}': ['p(99)<500'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ name: __ENV.USERNAME, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'logged in': (r) => r.status === 200 });
+    return { token: res.json('token') };
+}
+
+export function browse(data) {
+    const res = http.get(`${BASE_URL}/api/sweets`, {
+        headers: { Authorization: `Bearer ${data.token}` },
+    });
+    check(res, { 'list ok': (r) => r.status === 200 });
+}
+
+export function purchase(data) {
+    // refresh=false: 204 when bought, 409 when sold out; both are expected under load
+    const res = http.post(`${BASE_URL}/api/sweets/${SWEET_ID}/purchase?qty=1&refresh=false`, null, {
+        headers: { Authorization: `Bearer ${data.token}` },
+    });
+    check(res, { 'purchase handled': (r) => r.status === 204 || r.status === 409 });
+}
@@ -2,8 +2,10 @@ package com.project.sweet_shop_management;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SweetShopManagementApplication {
 
 	public static void main(String[] args) {
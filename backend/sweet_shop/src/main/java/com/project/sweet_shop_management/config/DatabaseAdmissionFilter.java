@@ -0,0 +1,131 @@
+package com.project.sweet_shop_management.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DatabaseAdmissionFilter caps how many API requests run at the same time when
+ * Tomcat serves requests on virtual threads.
+ *
+ * Why needed:
+ *  - With platform threads, Tomcat's pool (200 threads) limits how many requests can
+ *    wait for a Hikari connection. Virtual threads remove that limit, so a burst can
+ *    park thousands of requests on the connection pool until they hit connection-timeout.
+ *  - This filter keeps at most max-concurrent-requests in flight (a small multiple of
+ *    the Hikari pool size) and answers 503 with Retry-After when a request cannot get
+ *    a slot within acquire-timeout-ms, instead of failing deep inside JDBC.
+ *
+ * Note:
+ *  - Runs right after the CORS filter (order -110) and before Spring Security (-100), so its 503
+ *    carries CORS headers and the browser shows the client the real status.
+ *  - Async responses (CSV/NDJSON export via StreamingResponseBody) keep their slot until the
+ *    response completes, since they read the database after the request thread returned.
+ *  - The stock stream (/api/sweets/stream) is not counted: it is open for minutes and its
+ *    subscribers never query the database themselves.
+ *
+ * Only active with: spring.threads.virtual.enabled=true
+ */
+@Component
+@Order(DatabaseAdmissionFilter.ORDER)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+
+    // Between SecurityConfig's CorsFilter (-110) and the security filter chain (-100)
+    static final int ORDER = -105;
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DatabaseAdmissionFilter(@Value("${sweetshop.virtual.max-concurrent-requests:200}") int maxConcurrentRequests,
+                                   @Value("${sweetshop.virtual.acquire-timeout-ms:2000}") long acquireTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Only the REST API talks to the database
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/") || uri.equals("/api/sweets/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, try again");
+            return;
+        }
+        Runnable release = releaseOnce();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    // Gives the slot back when an async response ends, however it ends
+    private record ReleaseOnCompletion(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted on a later dispatch: keep listening
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
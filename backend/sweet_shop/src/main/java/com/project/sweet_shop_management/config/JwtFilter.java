@@ -1,16 +1,19 @@
 package com.project.sweet_shop_management.config;
 
-import com.project.sweet_shop_management.service.JWTService;
-import com.project.sweet_shop_management.service.MyUserDetailService;
+import com.project.sweet_shop_management.model.JwtClaims;
+import com.project.sweet_shop_management.model.UserPrincipal;
+import com.project.sweet_shop_management.service.UserDetailsCache;
+import com.project.sweet_shop_management.service.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,19 +28,30 @@ import java.io.IOException;
  *
  * Flow:
  *  1. Extract JWT token from "Authorization" header.
- *  2. Extract username from token.
- *  3. Load user details from DB.
- *  4. Validate token against user details.
- *  5. If valid → mark user as authenticated.
+ *  2. Verify the token (signature + expiry, cached per token) and read the username from it.
+ *  3. Load user details (cached, see UserDetailsCache).
+ *  4. If the user still exists → mark user as authenticated.
+ *
+ * Stateless mode (sweetshop.security.jwt.stateless=true):
+ *  - Tokens that carry a role claim are turned into an Authentication directly,
+ *    without loading the user. Staleness is bounded by the token lifetime
+ *    (sweetshop.security.jwt.expiration-ms) and clients renew via /api/auth/refresh.
+ *  - Tokens without a role claim still go through step 3.
+ *
+ * In both modes the principal is a UserPrincipal, so code reading it does not depend on the mode.
+ * A token whose user was deleted authenticates nobody (401/403 downstream, not a 500).
  */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JWTService jwtService;
+    private VerifiedTokenCache verifiedTokenCache; // Skips re-verifying tokens seen before
 
     @Autowired
-    private ApplicationContext context; // Used to get MyUserDetailService bean
+    private UserDetailsCache userDetailsCache; // Avoids a users-table query on every request
+
+    @Value("${sweetshop.security.jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -47,28 +61,39 @@ public class JwtFilter extends OncePerRequestFilter {
 
         // Example: "Authorization" header = "Bearer <JWT-TOKEN>"
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        JwtClaims claims = null;
 
         // 1️⃣ Check if Authorization header exists and starts with "Bearer "
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            // Remove "Bearer " prefix to get token
-            token = authHeader.substring(7);
-
-            // Extract username (subject) from token
-            username = jwtService.extractUserName(token);
+            // Remove "Bearer " prefix to get token, then verify it (signature + expiry), or reuse an earlier result
+            claims = verifiedTokenCache.verify(authHeader.substring(7)).orElse(null);
         }
 
-        // 2️⃣ Validate only if username is found and no authentication is set yet
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // 2️⃣ Continue only if the token is valid and no authentication is set yet
+        if (claims != null && claims.subject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Load user details from DB (through our custom service)
-            UserDetails userDetails = context
-                    .getBean(MyUserDetailService.class)
-                    .loadUserByUsername(username);
+            // Stateless mode: the signed role claim is enough, no user lookup
+            if (stateless && claims.role() != null) {
+                UserPrincipal principal = UserPrincipal.of(claims.subject(), claims.role());
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            // Load user details (from the cache, or from DB on a miss); null if the user was deleted
+            UserDetails userDetails;
+            try {
+                userDetails = userDetailsCache.get(claims.subject());
+            } catch (UsernameNotFoundException e) {
+                userDetails = null;
+            }
 
-            // 3️⃣ Validate token with user details
-            if (jwtService.validateToken(token, userDetails)) {
+            // 3️⃣ The token was already verified; make sure it belongs to this user
+            if (userDetails != null && claims.subject().equals(userDetails.getUsername())) {
 
                 // Create authentication object for Spring Security
                 UsernamePasswordAuthenticationToken authToken =
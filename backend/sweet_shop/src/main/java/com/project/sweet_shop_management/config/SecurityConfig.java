@@ -1,6 +1,7 @@
 package com.project.sweet_shop_management.config;
 
 import com.project.sweet_shop_management.service.MyUserDetailService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -65,6 +66,8 @@ public class SecurityConfig {
 
                 // Configure public and protected endpoints
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (SSE stream completion) belong to a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(   "/api/auth/**",
                                 "/swagger-ui/**",
                                 "/v3/api-docs",
@@ -1,11 +1,13 @@
 package com.project.sweet_shop_management.controller;
 
 import com.project.sweet_shop_management.model.LoginResponse;
+import com.project.sweet_shop_management.model.UserView;
 import com.project.sweet_shop_management.model.Users;
 import com.project.sweet_shop_management.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,8 +21,8 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping("/register")
-    public ResponseEntity<Users> saveUser(@RequestBody Users user){
-        return new ResponseEntity<>(authService.saveUser(user), HttpStatus.CREATED);
+    public ResponseEntity<UserView> saveUser(@RequestBody Users user){
+        return new ResponseEntity<>(UserView.of(authService.saveUser(user)), HttpStatus.CREATED);
     }
 
     @PostMapping("/login")
@@ -28,4 +30,15 @@ public class AuthController {
         return new ResponseEntity<>(authService.loginUser(user), HttpStatus.OK);
     }
 
+    // Exchange a still-valid token for a new one (picks up role changes); 401 if the user was deleted
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return authService.refreshToken(authentication.getName())
+                .map(response -> new ResponseEntity<>(response, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
+    }
+
 }
\ No newline at end of file
@@ -1,21 +1,83 @@
 package com.project.sweet_shop_management.controller;
 
+import com.project.sweet_shop_management.model.ImportResult;
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Reservation;
+import com.project.sweet_shop_management.model.SalesStats;
+import com.project.sweet_shop_management.model.StockDelta;
 import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.sweet_shop_management.repository.SweetFieldsRepository;
+import com.project.sweet_shop_management.service.CatalogVersion;
+import com.project.sweet_shop_management.service.SweetCatalogSnapshot;
+import com.project.sweet_shop_management.service.SweetExportService;
+import com.project.sweet_shop_management.service.SweetImportService;
+import com.project.sweet_shop_management.service.SweetReservationService;
 import com.project.sweet_shop_management.service.SweetService;
+import com.project.sweet_shop_management.service.sales.SalesLedger;
+import com.project.sweet_shop_management.service.stock.StockStreamHub;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/sweets")
 public class SweetController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_TOP_SELLERS = 100;
+
     private final SweetService sweetService;
+    private final SweetImportService importService;
+    private final SweetExportService exportService;
+    private final SweetReservationService reservationService;
+    private final StockStreamHub stockStream;
+    private final CatalogVersion catalogVersion;
+    private final SweetCatalogSnapshot catalogSnapshot;
+    private final SalesLedger salesLedger;
+    private final ObjectWriter sweetWriter;
 
-    public SweetController(SweetService sweetService) {
+    public SweetController(SweetService sweetService, SweetImportService importService,
+                           SweetExportService exportService, SweetReservationService reservationService,
+                           StockStreamHub stockStream, CatalogVersion catalogVersion,
+                           SweetCatalogSnapshot catalogSnapshot, SalesLedger salesLedger,
+                           ObjectMapper objectMapper) {
         this.sweetService = sweetService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.reservationService = reservationService;
+        this.stockStream = stockStream;
+        this.catalogVersion = catalogVersion;
+        this.catalogSnapshot = catalogSnapshot;
+        this.salesLedger = salesLedger;
+        this.sweetWriter = objectMapper.writerFor(Sweet.class);
     }
 
     // Add new sweet
@@ -25,29 +87,222 @@ public class SweetController {
         return ResponseEntity.ok(sweetService.addSweet(sweet));
     }
 
-    // Get all sweets
+    // Bulk import (Admin only): CSV with a header row or NDJSON, upserted by name.
+    // The body is streamed; the response lists rows that were rejected.
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportResult> importSweets(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                     InputStream body) throws IOException {
+        SweetImportService.Format format = contentType.startsWith(CSV)
+                ? SweetImportService.Format.CSV
+                : SweetImportService.Format.NDJSON;
+        return ResponseEntity.ok(importService.importSweets(body, format));
+    }
+
+    // Export the whole catalog as a download (Admin only), streamed from a database cursor.
+    // ?format=csv|ndjson, gzip=true sends a .gz file
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSweets(@RequestParam(defaultValue = "csv") String format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip) {
+        SweetExportService.Format exportFormat;
+        String contentType;
+        String fileName;
+        if (format.equalsIgnoreCase("csv")) {
+            exportFormat = SweetExportService.Format.CSV;
+            contentType = CSV;
+            fileName = "sweets.csv";
+        } else if (format.equalsIgnoreCase("ndjson")) {
+            exportFormat = SweetExportService.Format.NDJSON;
+            contentType = NDJSON;
+            fileName = "sweets.ndjson";
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        if (gzip) {
+            contentType = "application/gzip";
+            fileName += ".gz";
+        }
+
+        StreamingResponseBody body = out -> exportService.export(out, exportFormat, gzip);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Get all sweets; 304 if the client's ETag is still current. The JSON (and a gzip copy)
+    // is rendered ahead of time by SweetCatalogSnapshot and written out as is.
+    // The gzip body has its own ETag ("...-gz"), since it is a different byte sequence
     @GetMapping
-    public ResponseEntity<List<Sweet>> getAllSweets() {
-        return ResponseEntity.ok(sweetService.getAllSweets());
+    public ResponseEntity<byte[]> getAllSweets(WebRequest request,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                               String acceptEncoding) {
+        SweetCatalogSnapshot.Rendered snapshot = catalogSnapshot.current();
+        boolean gzip = snapshot.gzip() != null && acceptsGzip(acceptEncoding);
+        String etag = gzip ? catalogVersion.etagOf(snapshot.version(), "gz") : catalogVersion.etagOf(snapshot.version());
+        if (request.checkNotModified(etag, snapshot.renderedAtMillis())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    // Get only some fields of every sweet (?fields=id,name,price); id is always included.
+    // Only the requested columns are read, and the response shrinks accordingly
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getSweetFields(@RequestParam String fields, WebRequest request) {
+        List<String> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag, catalogVersion.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(sweetService.getSweetFields(selected, null));
     }
 
-    // Search sweets
+    // Get one sweet; conditional on the catalog version like the list
+    @GetMapping("/{id}")
+    public ResponseEntity<Sweet> getSweetById(@PathVariable Long id, WebRequest request) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag, catalogVersion.lastModifiedMillis())) {
+            return null;
+        }
+        return sweetService.getSweetById(id)
+                .map(sweet -> ResponseEntity.ok().eTag(etag).body(sweet))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Get one page of sweets, sorted by id (?page=0&size=20)
+    @GetMapping("/page")
+    public ResponseEntity<PagedModel<Sweet>> getSweetsPage(@PageableDefault(size = DEFAULT_PAGE_SIZE) Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new PagedModel<>(sweetService.getSweetsPage(pageable)));
+    }
+
+    // Get the next sweets after a given id (?afterId=0&limit=50); pass the last id back to continue
+    @GetMapping("/keyset")
+    public ResponseEntity<List<Sweet>> getSweetsAfter(@RequestParam(defaultValue = "0") Long afterId,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(sweetService.getSweetsAfter(afterId, limit));
+    }
+
+    // Stream all sweets as newline-delimited JSON (Accept: application/x-ndjson), one row at a time
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllSweets() {
+        StreamingResponseBody body = out -> sweetService.streamAllSweets(sweet -> {
+            try {
+                out.write(sweetWriter.writeValueAsBytes(sweet));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
+    }
+
+    // Live stock changes as server-sent events ("stock" batches, "resync" when the list must be reloaded)
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> streamStock() {
+        SseEmitter emitter = stockStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Search sweets: all given filters are combined (name AND category AND price range).
+    // With only name or only category: the best matches first (at most sweetshop.search.max-results).
+    // With only a price range: every match, cheapest first.
+    // Pass page and/or size (default 20) to get one page of all matches by id; the total number of
+    // matches is then in X-Total-Count. Pass fields=id,name,price instead to get only those fields of every match.
     @GetMapping("/search")
-    public ResponseEntity<List<Sweet>> searchSweets(
+    public ResponseEntity<?> searchSweets(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields
     ) {
-        if (name != null) return ResponseEntity.ok(sweetService.searchByName(name));
-        if (category != null) return ResponseEntity.ok(sweetService.searchByCategory(category));
-        if (minPrice != null && maxPrice != null) {
-            return ResponseEntity.ok(sweetService.searchByPriceRange(minPrice, maxPrice));
+        SweetSearchCriteria criteria = new SweetSearchCriteria(blankToNull(name), blankToNull(category), minPrice, maxPrice);
+        if (criteria.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (fields != null) {
+            List<String> selected = parseFields(fields);
+            if (selected == null || page != null || size != null) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(sweetService.getSweetFields(selected, criteria));
+        }
+        if (page == null && size == null) {
+            boolean noPrice = minPrice == null && maxPrice == null;
+            if (noPrice && criteria.getCategory() == null) {
+                return ResponseEntity.ok(sweetService.searchByName(criteria.getName()));
+            }
+            if (noPrice && criteria.getName() == null) {
+                return ResponseEntity.ok(sweetService.searchByCategory(criteria.getCategory()));
+            }
+            if (criteria.getName() == null && criteria.getCategory() == null) {
+                return ResponseEntity.ok(sweetService.searchByPriceRange(
+                        minPrice == null ? 0 : minPrice, maxPrice == null ? Double.MAX_VALUE : maxPrice));
+            }
+            return ResponseEntity.ok(sweetService.searchSweets(criteria, Pageable.unpaged()).getContent());
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if ((page != null && page < 0) || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.badRequest().build();
+        Page<Sweet> result = sweetService.searchSweets(criteria, PageRequest.of(page == null ? 0 : page, pageSize));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
     }
 
-    // Update sweet
+    // Sales figures from the running totals (no ledger scan): top sellers, categories and
+    // units/revenue over the last minutes and hours
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SalesStats> getSalesStats(@RequestParam(defaultValue = "10") int top,
+                                                    @RequestParam(defaultValue = "60") int minutes,
+                                                    @RequestParam(defaultValue = "24") int hours) {
+        if (top < 0 || top > MAX_TOP_SELLERS || minutes < 1 || hours < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesLedger.stats(top, minutes, hours));
+    }
+
+    // Typeahead for the search box: up to limit {id, name} pairs for a name prefix
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SweetSuggestion>> suggestNames(@RequestParam String prefix,
+                                                              @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (prefix.isBlank()) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(sweetService.suggestNames(prefix, limit));
+    }
+
+    // Update sweet (body must carry the editVersion that was read; 409 if the sweet was edited since)
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Sweet> updateSweet(@PathVariable Long id, @RequestBody Sweet sweet) {
@@ -63,17 +318,127 @@ public class SweetController {
         return ResponseEntity.noContent().build();
     }
 
-    // Purchase sweet
+    // Purchase sweet (refresh=false skips reloading the sweet: 204 if bought, 409 if not enough stock)
     @PostMapping("/{id}/purchase")
-    public ResponseEntity<Sweet> purchaseSweet(@PathVariable Long id, @RequestParam int qty) {
+    public ResponseEntity<Sweet> purchaseSweet(@PathVariable Long id, @RequestParam int qty,
+                                               @RequestParam(defaultValue = "true") boolean refresh) {
+        if (!refresh) {
+            return sweetService.tryPurchaseSweet(id, qty)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         return ResponseEntity.ok(sweetService.purchaseSweet(id, qty));
     }
 
-    // Restock sweet (Admin only)
+    // Purchase a whole cart in one request (all lines or none; 409 with per-line results if any line fails,
+    // 400 if a line has no sweet id or a bad quantity)
+    @PostMapping("/purchase/batch")
+    public ResponseEntity<List<PurchaseLineResult>> purchaseSweets(@RequestBody List<PurchaseLine> lines) {
+        List<PurchaseLineResult> results = sweetService.purchaseSweets(lines);
+        boolean allPurchased = results.stream().allMatch(PurchaseLineResult::isPurchased);
+        return ResponseEntity.status(allPurchased ? HttpStatus.OK : HttpStatus.CONFLICT).body(results);
+    }
+
+    // Hold stock during checkout; 409 if there is not enough. Without ttlSeconds the configured default applies
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<Reservation> reserveSweet(@PathVariable Long id, @RequestParam int qty,
+                                                    @RequestParam(required = false) Long ttlSeconds) {
+        Reservation reservation = reservationService.reserve(id, qty,
+                ttlSeconds == null ? null : Duration.ofSeconds(ttlSeconds));
+        return reservation == null
+                ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                : ResponseEntity.ok(reservation);
+    }
+
+    // Complete the purchase of a held quantity; 404 if the hold expired or was settled already
+    @PostMapping("/reservations/{holdId}/confirm")
+    public ResponseEntity<Void> confirmReservation(@PathVariable String holdId) {
+        return reservationService.confirm(holdId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // Release a hold before it expires
+    @DeleteMapping("/reservations/{holdId}")
+    public ResponseEntity<Void> cancelReservation(@PathVariable String holdId) {
+        return reservationService.cancel(holdId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // Restock sweet (Admin only; async=true queues it and returns 202 without the sweet)
 
     @PostMapping("/{id}/restock")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Sweet> restockSweet(@PathVariable Long id, @RequestParam int qty) {
+    public ResponseEntity<Sweet> restockSweet(@PathVariable Long id, @RequestParam int qty,
+                                              @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            sweetService.queueRestocks(List.of(new StockDelta(id, qty)));
+            return ResponseEntity.accepted().build();
+        }
         return ResponseEntity.ok(sweetService.restockSweet(id, qty));
     }
+
+    // Queue many restocks at once (warehouse feed, Admin only); applied in batches, returns 202
+    @PostMapping("/restock/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> restockSweets(@RequestBody List<StockDelta> deltas) {
+        sweetService.queueRestocks(deltas);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Split a hot sweet's stock over count rows (Admin only); count 0 or 1 turns it off
+    @PostMapping("/{id}/shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Sweet> setStockShards(@PathVariable Long id, @RequestParam int count) {
+        return ResponseEntity.ok(sweetService.setStockShards(id, count));
+    }
+
+    // Comma-separated field names; null if one of them is not a selectable field
+    private static List<String> parseFields(String fields) {
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!SweetFieldsRepository.FIELDS.contains(trimmed)) {
+                return null;
+            }
+            selected.add(trimmed);
+        }
+        return selected;
+    }
+
+    // True if Accept-Encoding allows gzip: listed (or covered by *) with a q-value above 0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 }
\ No newline at end of file
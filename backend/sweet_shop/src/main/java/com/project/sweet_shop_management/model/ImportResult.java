@@ -0,0 +1,22 @@
+package com.project.sweet_shop_management.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk catalog import.
+ *
+ * @param rows     data rows read (header and blank lines not counted)
+ * @param imported rows inserted or updated
+ * @param failed   rows rejected
+ * @param errors   the first rejected rows with the reason (capped, see errorsTruncated)
+ * @param errorsTruncated true if more rows failed than are listed in errors
+ */
+public record ImportResult(long rows, long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+
+    /**
+     * @param line    line number in the uploaded file (1-based, header included)
+     * @param message why the row was rejected
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.sweet_shop_management.model;
+
+import java.util.Date;
+
+/**
+ * The parts of a verified JWT that the application uses.
+ * Built once per token by JWTService.verify, after the signature and expiry were checked.
+ *
+ * @param subject    username stored in the token
+ * @param role       role claim (e.g. "ADMIN"), null for tokens issued without one
+ * @param expiration when the token stops being valid
+ */
+public record JwtClaims(String subject, String role, Date expiration) {
+}
@@ -2,18 +2,18 @@ package com.project.sweet_shop_management.model;
 
 public class LoginResponse {
     private String token;
-    private Users user;
+    private UserView user;
 
     public LoginResponse(String token, Users user) {
         this.token = token;
-        this.user = user;
+        this.user = UserView.of(user);
     }
 
     public String getToken() {
         return token;
     }
 
-    public Users getUser() {
+    public UserView getUser() {
         return user;
     }
 }
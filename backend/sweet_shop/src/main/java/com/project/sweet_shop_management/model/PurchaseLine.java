@@ -0,0 +1,31 @@
+package com.project.sweet_shop_management.model;
+
+// One line of a batch checkout: which sweet and how many units
+public class PurchaseLine {
+    private Long sweetId;
+    private int quantity;
+
+    public PurchaseLine() {
+    }
+
+    public PurchaseLine(Long sweetId, int quantity) {
+        this.sweetId = sweetId;
+        this.quantity = quantity;
+    }
+
+    public Long getSweetId() {
+        return sweetId;
+    }
+
+    public void setSweetId(Long sweetId) {
+        this.sweetId = sweetId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.sweet_shop_management.model;
+
+// Outcome of one line of a batch checkout
+public class PurchaseLineResult {
+
+    public enum Status {
+        PURCHASED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        // The line itself was fine but another line failed, so nothing was bought
+        ROLLED_BACK
+    }
+
+    private final Long sweetId;
+    private final int quantity;
+    private final Status status;
+    // Quantity left after the purchase, null if the line was not purchased
+    private final Integer remainingQuantity;
+
+    public PurchaseLineResult(Long sweetId, int quantity, Status status, Integer remainingQuantity) {
+        this.sweetId = sweetId;
+        this.quantity = quantity;
+        this.status = status;
+        this.remainingQuantity = remainingQuantity;
+    }
+
+    public static PurchaseLineResult purchased(PurchaseLine line, int remainingQuantity) {
+        return new PurchaseLineResult(line.getSweetId(), line.getQuantity(), Status.PURCHASED, remainingQuantity);
+    }
+
+    public static PurchaseLineResult failed(PurchaseLine line, Status status) {
+        return new PurchaseLineResult(line.getSweetId(), line.getQuantity(), status, null);
+    }
+
+    public Long getSweetId() {
+        return sweetId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Integer getRemainingQuantity() {
+        return remainingQuantity;
+    }
+
+    public boolean isPurchased() {
+        return status == Status.PURCHASED;
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.sweet_shop_management.model;
+
+import java.time.Instant;
+
+// A hold on stock during checkout: confirm it to complete the purchase, or it goes back into stock at expiresAt
+public record Reservation(String holdId, Long sweetId, int quantity, Instant expiresAt) {
+}
@@ -0,0 +1,37 @@
+package com.project.sweet_shop_management.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// Marks a restock journal segment as applied to the sweets table (written in the same transaction),
+// so a segment file left behind by a crash is not applied twice
+@Entity
+@Table(name = "restock_flushes")
+public class RestockFlush {
+
+    @Id
+    private Long segment;
+
+    @Column(nullable = false)
+    private Instant flushedAt;
+
+    public RestockFlush() {
+    }
+
+    public RestockFlush(Long segment, Instant flushedAt) {
+        this.segment = segment;
+        this.flushedAt = flushedAt;
+    }
+
+    public Long getSegment() {
+        return segment;
+    }
+
+    public Instant getFlushedAt() {
+        return flushedAt;
+    }
+}
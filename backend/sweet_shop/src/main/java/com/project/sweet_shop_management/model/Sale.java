@@ -0,0 +1,71 @@
+package com.project.sweet_shop_management.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// One purchase in the append-only sales ledger (written in batches by SalesLedger, never updated).
+// Category and price are copied at sale time, so later catalog edits do not rewrite history.
+@Entity
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_sold_at", columnList = "soldAt")
+})
+public class Sale {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    private String category;
+
+    private int quantity;
+
+    private double unitPrice;
+
+    @Column(nullable = false)
+    private Instant soldAt;
+
+    public Sale() {
+    }
+
+    public Sale(Long sweetId, String category, int quantity, double unitPrice, Instant soldAt) {
+        this.sweetId = sweetId;
+        this.category = category;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.soldAt = soldAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSweetId() {
+        return sweetId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public Instant getSoldAt() {
+        return soldAt;
+    }
+}
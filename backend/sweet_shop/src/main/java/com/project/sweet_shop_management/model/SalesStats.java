@@ -0,0 +1,28 @@
+package com.project.sweet_shop_management.model;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/sweets/stats. Revenue is in the same unit as Sweet.price.
+ *
+ * @param units       units sold since the ledger started
+ * @param revenue     revenue since the ledger started
+ * @param topSellers  best-selling sweets by units, best first
+ * @param categories  every category, highest revenue first
+ * @param windows     units and revenue over recent windows (last N minutes / hours)
+ */
+public record SalesStats(long units, double revenue, List<SweetSales> topSellers,
+                         List<CategorySales> categories, List<WindowSales> windows) {
+
+    public record SweetSales(long sweetId, String name, long units, double revenue) {
+    }
+
+    public record CategorySales(String category, long units, double revenue) {
+    }
+
+    /**
+     * @param window e.g. "60m" or "24h"
+     */
+    public record WindowSales(String window, long units, double revenue) {
+    }
+}
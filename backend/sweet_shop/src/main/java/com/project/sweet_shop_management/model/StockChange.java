@@ -0,0 +1,19 @@
+package com.project.sweet_shop_management.model;
+
+/**
+ * Published after a sweet's quantity changed, for the stock stream (GET /api/sweets/stream).
+ *
+ * @param sweetId  id of the sweet
+ * @param quantity its new quantity, or null when the writer does not know it
+ *                 (tryPurchase, queued restocks); the stream then reads it from the database
+ */
+public record StockChange(Long sweetId, Integer quantity) {
+
+    public static StockChange of(Sweet sweet) {
+        return new StockChange(sweet.getId(), sweet.getQuantity());
+    }
+
+    public static StockChange changed(Long sweetId) {
+        return new StockChange(sweetId, null);
+    }
+}
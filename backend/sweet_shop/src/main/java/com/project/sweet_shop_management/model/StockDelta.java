@@ -0,0 +1,31 @@
+package com.project.sweet_shop_management.model;
+
+// One restock line from the warehouse feed: which sweet and how many units arrived
+public class StockDelta {
+    private Long sweetId;
+    private int quantity;
+
+    public StockDelta() {
+    }
+
+    public StockDelta(Long sweetId, int quantity) {
+        this.sweetId = sweetId;
+        this.quantity = quantity;
+    }
+
+    public Long getSweetId() {
+        return sweetId;
+    }
+
+    public void setSweetId(Long sweetId) {
+        this.sweetId = sweetId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -1,10 +1,14 @@
 package com.project.sweet_shop_management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence .*;
 
-// Sweet entity representing sweets table
+// Sweet entity representing sweets table (indexed for category and price filters)
 @Entity
-@Table(name = "sweets")
+@Table(name = "sweets", indexes = {
+        @Index(name = "idx_sweets_category", columnList = "category"),
+        @Index(name = "idx_sweets_price", columnList = "price")
+})
 public class Sweet {
 
     @Id
@@ -20,6 +24,18 @@ public class Sweet {
 
     private int quantity;
 
+    // Optimistic locking: bumped on every write, a save with a stale version fails.
+    // Bulk UPDATE statements on sweets must increment it as well.
+    // Purchases and restocks move it all the time, so clients never see it (see editVersion).
+    @Version
+    @JsonIgnore
+    private long version;
+
+    // Bumped by catalog edits only (PUT, bulk import), never by purchases or restocks.
+    // A PUT must send the editVersion it read; if the sweet was edited since, it gets 409.
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long editVersion;
+
     // Constructors
     public Sweet() {
     }
@@ -71,5 +87,21 @@ public class Sweet {
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getEditVersion() {
+        return editVersion;
+    }
+
+    public void setEditVersion(long editVersion) {
+        this.editVersion = editVersion;
+    }
 }
 
@@ -0,0 +1,31 @@
+package com.project.sweet_shop_management.model;
+
+/**
+ * Published by SweetServiceImpl after a catalog write, so in-memory structures
+ * (search indexes, ...) can update themselves without reloading the catalog.
+ *
+ * @param type    what happened
+ * @param sweetId id of the sweet that changed; null for RELOADED
+ * @param sweet   the saved sweet; null for DELETED and RELOADED
+ */
+public record SweetCatalogEvent(Type type, Long sweetId, Sweet sweet) {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        // Many rows changed at once (bulk import); listeners should reload or drop what they hold
+        RELOADED
+    }
+
+    public static SweetCatalogEvent saved(Sweet sweet) {
+        return new SweetCatalogEvent(Type.SAVED, sweet.getId(), sweet);
+    }
+
+    public static SweetCatalogEvent deleted(Long id) {
+        return new SweetCatalogEvent(Type.DELETED, id, null);
+    }
+
+    public static SweetCatalogEvent reloaded() {
+        return new SweetCatalogEvent(Type.RELOADED, null, null);
+    }
+}
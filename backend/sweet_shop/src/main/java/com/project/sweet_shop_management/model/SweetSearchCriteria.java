@@ -0,0 +1,62 @@
+package com.project.sweet_shop_management.model;
+
+// Filters for the combined sweet search; null fields are ignored
+public class SweetSearchCriteria {
+    // Part of the name, case-insensitive
+    private String name;
+    // Part of the category, case-insensitive
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+
+    public SweetSearchCriteria() {
+    }
+
+    public SweetSearchCriteria(String name, String category, Double minPrice, Double maxPrice) {
+        this.name = name;
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public boolean isEmpty() {
+        return name == null && category == null && minPrice == null && maxPrice == null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "name=" + name + ",category=" + category + ",minPrice=" + minPrice + ",maxPrice=" + maxPrice;
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.sweet_shop_management.model;
+
+/**
+ * Published after a purchase went through (single, batch or confirmed reservation), for the sales ledger.
+ *
+ * @param sweetId  id of the sweet
+ * @param quantity units sold
+ */
+public record SweetSold(Long sweetId, int quantity) {
+}
@@ -0,0 +1,76 @@
+package com.project.sweet_shop_management.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// One slice of a hot sweet's stock (see ShardedStockEngine). The sweet's total quantity
+// is its row in "sweets" plus all of its shards.
+@Entity
+@Table(name = "sweet_stock_shards")
+@IdClass(SweetStockShard.Key.class)
+public class SweetStockShard {
+
+    @Id
+    private Long sweetId;
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public SweetStockShard() {
+    }
+
+    public SweetStockShard(Long sweetId, int shard, int quantity) {
+        this.sweetId = sweetId;
+        this.shard = shard;
+        this.quantity = quantity;
+    }
+
+    public Long getSweetId() {
+        return sweetId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long sweetId;
+        private int shard;
+
+        public Key() {
+        }
+
+        public Key(Long sweetId, int shard) {
+            this.sweetId = sweetId;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && shard == other.shard && Objects.equals(sweetId, other.sweetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sweetId, shard);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.sweet_shop_management.model;
+
+/**
+ * One typeahead entry returned by GET /api/sweets/suggest: just enough to show
+ * the name and open the sweet.
+ */
+public record SweetSuggestion(Long id, String name) {
+}
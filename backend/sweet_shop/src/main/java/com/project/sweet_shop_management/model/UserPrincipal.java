@@ -31,6 +31,17 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * Principal for a stateless token (see JwtFilter): only the name and role from the token
+     * are known, there is no id or password.
+     */
+    public static UserPrincipal of(String username, String role) {
+        Users user = new Users();
+        user.setName(username);
+        user.setRole(role);
+        return new UserPrincipal(user);
+    }
+
     /**
      * Returns the authorities (roles/permissions) assigned to the user.
      *
@@ -0,0 +1,30 @@
+package com.project.sweet_shop_management.model;
+
+// What clients get to see of a user (register and login responses); never the password hash
+public class UserView {
+    private final long id;
+    private final String name;
+    private final String role;
+
+    public UserView(long id, String name, String role) {
+        this.id = id;
+        this.name = name;
+        this.role = role;
+    }
+
+    public static UserView of(Users user) {
+        return new UserView(user.getId(), user.getName(), user.getRole());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
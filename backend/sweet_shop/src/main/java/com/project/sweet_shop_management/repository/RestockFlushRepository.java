@@ -0,0 +1,23 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.RestockFlush;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RestockFlushRepository extends JpaRepository<RestockFlush, Long> {
+
+    // Newest applied segment; new segments are numbered after it
+    @Query("select max(f.segment) from RestockFlush f")
+    Optional<Long> findLastSegment();
+
+    // Markers are only needed while their segment file may still exist
+    @Modifying
+    @Query("delete from RestockFlush f where f.segment < :segment")
+    int deleteOlderThan(@Param("segment") Long segment);
+}
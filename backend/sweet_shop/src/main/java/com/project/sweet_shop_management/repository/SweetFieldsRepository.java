@@ -0,0 +1,24 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.Sweet;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field selection for slim list responses (?fields=id,name,price): only the requested
+ * columns are selected, and each row comes back as an ordered field → value map.
+ */
+public interface SweetFieldsRepository {
+
+    // Selectable fields, in the order they appear in every row
+    List<String> FIELDS = List.of("id", "name", "category", "price", "quantity");
+
+    /**
+     * @param fields fields to select, all from FIELDS; id is always included
+     * @param spec   filter, or null for the whole catalog
+     * @return matching sweets sorted by id
+     */
+    List<Map<String, Object>> findFields(List<String> fields, Specification<Sweet> spec);
+}
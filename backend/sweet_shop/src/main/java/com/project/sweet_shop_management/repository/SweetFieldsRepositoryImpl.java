@@ -0,0 +1,56 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.Sweet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Picked up by Spring Data as the implementation of the SweetFieldsRepository fragment of SweetRepository
+class SweetFieldsRepositoryImpl implements SweetFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, Specification<Sweet> spec) {
+        List<String> selected = new ArrayList<>();
+        for (String field : FIELDS) {
+            if (field.equals("id") || fields.contains(field)) {
+                selected.add(field);
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Sweet> root = query.from(Sweet.class);
+        List<Selection<?>> columns = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            columns.add(root.get(field).alias(field));
+        }
+        query.multiselect(columns).orderBy(cb.asc(root.get("id")));
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selected) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,17 +1,70 @@
 package com.project.sweet_shop_management.repository;
 
 import com.project.sweet_shop_management.model.Sweet;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface SweetRepository extends JpaRepository<Sweet, Long> {
-    // Custom query methods
-    List<Sweet> findByNameContainingIgnoreCase(String name);
+public interface SweetRepository extends JpaRepository<Sweet, Long>, JpaSpecificationExecutor<Sweet>,
+        SweetFieldsRepository {
+    // Custom query methods (name/category: fallback while the in-memory search index is loading)
+    List<Sweet> findByNameContainingIgnoreCaseOrderByIdAsc(String name, Limit limit);
+
+    List<Sweet> findByCategoryContainingIgnoreCaseOrderByIdAsc(String category, Limit limit);
+
+    List<Sweet> findByPriceBetweenOrderByPriceAscIdAsc(double minPrice, double maxPrice);
+
+    // Typeahead fallback while the in-memory search index is loading
+    List<Sweet> findByNameStartingWithIgnoreCaseOrderByNameAsc(String prefix, Limit limit);
+
+    // Keyset pagination: next page after the last id the client has seen
+    List<Sweet> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Reads the whole catalog through a cursor (needs useCursorFetch=true on MySQL); close the stream when done
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select s from Sweet s order by s.id")
+    Stream<Sweet> streamAllByOrderByIdAsc();
+
+    // Loads and row-locks (SELECT ... FOR UPDATE) the given sweets in id order, so concurrent batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Sweet> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // The stored quantity alone, without loading (or managing) the entity
+    @Query("select s.quantity from Sweet s where s.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    // Overwrites the stored quantity without loading the entity (used by the in-memory stock engine)
+    @Transactional
+    @Modifying
+    @Query("update Sweet s set s.quantity = :quantity, s.version = s.version + 1 where s.id = :id")
+    int updateQuantity(@Param("id") Long id, @Param("quantity") int quantity);
 
-    List<Sweet> findByCategoryContainingIgnoreCase(String category);
+    // Takes stock in one statement; returns 0 if the sweet is missing or has fewer than qty units
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sweet s set s.quantity = s.quantity - :qty, s.version = s.version + 1 where s.id = :id and s.quantity >= :qty")
+    int decrementStock(@Param("id") Long id, @Param("qty") int qty);
 
-    List<Sweet> findByPriceBetween(double minPrice, double maxPrice);
+    // Adds stock in one statement; returns 0 if the sweet is missing
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sweet s set s.quantity = s.quantity + :qty, s.version = s.version + 1 where s.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("qty") int qty);
 }
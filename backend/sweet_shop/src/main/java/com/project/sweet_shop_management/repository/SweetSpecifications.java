@@ -0,0 +1,53 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Building blocks for the combined sweet search (see SweetRepository.findAll(Specification, Pageable)).
+ *
+ * Name and category match any part of the text, case-insensitively (LIKE '%x%'), like the
+ * single-field searches. Price filters compare the plain column, so MySQL can use idx_sweets_price.
+ */
+public final class SweetSpecifications {
+
+    private SweetSpecifications() {
+    }
+
+    public static Specification<Sweet> nameContains(String name) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%");
+    }
+
+    public static Specification<Sweet> categoryContains(String category) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("category")), "%" + category.toLowerCase() + "%");
+    }
+
+    public static Specification<Sweet> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Sweet> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /**
+     * Combines all non-null criteria with AND.
+     */
+    public static Specification<Sweet> matching(SweetSearchCriteria criteria) {
+        Specification<Sweet> spec = Specification.unrestricted();
+        if (criteria.getName() != null) {
+            spec = spec.and(nameContains(criteria.getName()));
+        }
+        if (criteria.getCategory() != null) {
+            spec = spec.and(categoryContains(criteria.getCategory()));
+        }
+        if (criteria.getMinPrice() != null) {
+            spec = spec.and(priceAtLeast(criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            spec = spec.and(priceAtMost(criteria.getMaxPrice()));
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.SweetStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SweetStockShardRepository extends JpaRepository<SweetStockShard, SweetStockShard.Key> {
+
+    // Shard count and summed quantity of one sharded sweet
+    interface ShardSummary {
+        Long getSweetId();
+
+        Long getShards();
+
+        Long getTotal();
+    }
+
+    @Query("select s.sweetId as sweetId, count(s) as shards, sum(s.quantity) as total "
+            + "from SweetStockShard s group by s.sweetId")
+    List<ShardSummary> summarizeAll();
+
+    @Query("select s.sweetId as sweetId, count(s) as shards, sum(s.quantity) as total "
+            + "from SweetStockShard s where s.sweetId in :ids group by s.sweetId")
+    List<ShardSummary> summarize(@Param("ids") Collection<Long> ids);
+
+    long countBySweetId(Long sweetId);
+
+    // Loads and row-locks all shards of a sweet in shard order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SweetStockShard> findBySweetIdOrderByShardAsc(Long sweetId);
+
+    // Takes stock from one shard in one statement; returns 0 if the shard has fewer than qty units
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update SweetStockShard s set s.quantity = s.quantity - :qty "
+            + "where s.sweetId = :sweetId and s.shard = :shard and s.quantity >= :qty")
+    int take(@Param("sweetId") Long sweetId, @Param("shard") int shard, @Param("qty") int qty);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update SweetStockShard s set s.quantity = s.quantity + :qty where s.sweetId = :sweetId and s.shard = :shard")
+    int add(@Param("sweetId") Long sweetId, @Param("shard") int shard, @Param("qty") int qty);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SweetStockShard s where s.sweetId = :sweetId")
+    int deleteBySweetId(@Param("sweetId") Long sweetId);
+
+    // Drops the shards of the named sweets (after a bulk import set their quantity in the sweets table)
+    @Transactional
+    @Modifying
+    @Query("delete from SweetStockShard s where s.sweetId in (select w.id from Sweet w where w.name in :names)")
+    int deleteBySweetNames(@Param("names") Collection<String> names);
+}
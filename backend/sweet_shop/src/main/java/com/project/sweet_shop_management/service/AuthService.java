@@ -11,6 +11,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * AuthService handles user registration and login logic.
  *
@@ -38,6 +40,10 @@ public class AuthService {
     @Autowired
     public AuthenticationManager authenticationManager;
 
+    // Cached user details used by JwtFilter; must be evicted whenever a user row changes
+    @Autowired
+    public UserDetailsCache userDetailsCache;
+
     // BCrypt password encoder (strength 12) for secure password hashing
     private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
@@ -50,7 +56,11 @@ public class AuthService {
     public Users saveUser(Users user) {
         // Encrypt password before saving to DB
         user.setPassword(encoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        Users saved = userRepository.save(user);
+
+        // Password or role may have changed, so stop serving the cached copy
+        userDetailsCache.evict(saved.getName());
+        return saved;
     }
 
     /**
@@ -66,16 +76,31 @@ public class AuthService {
         );
 
         if (authentication.isAuthenticated()) {
-            // Generate JWT
-            String token = jwtService.generateToken(user.getName());
-
             // Fetch full user details from DB
             Users dbUser = userRepository.findByName(user.getName());
 
+            // Generate JWT (the role is embedded so requests can be authorized without a DB lookup)
+            String token = jwtService.generateToken(dbUser.getName(), dbUser.getRole());
+
             return new LoginResponse(token, dbUser);
         } else {
             throw new RuntimeException("Invalid login credentials");
         }
     }
 
+    /**
+     * Issues a fresh token for an already authenticated user, with the role as currently
+     * stored in the database. Clients call this before their short-lived token expires.
+     *
+     * @param username name of the authenticated user
+     * @return new JWT token and the user; empty if the user was deleted since the token was issued
+     */
+    public Optional<LoginResponse> refreshToken(String username) {
+        Users dbUser = userRepository.findByName(username);
+        if (dbUser == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new LoginResponse(jwtService.generateToken(dbUser.getName(), dbUser.getRole()), dbUser));
+    }
+
 }
@@ -0,0 +1,408 @@
+package com.project.sweet_shop_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.StockDelta;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * CachingSweetService is a read-through cache in front of SweetServiceImpl.
+ *
+ * Layout:
+ *  - items   → id → sweet catalog data (name, category, price), long TTL
+ *  - stock   → id → quantity, short TTL because purchases change it all the time
+ *  - queries → list/search key → matching ids (results are assembled from items + stock)
+ *
+ * Invalidation:
+ *  - add/update/delete clear the changed item and all query results (membership may change)
+ *  - purchase/restock only clear the stock entry of the sweet they touched,
+ *    so browse traffic keeps hitting the cache during sales
+ *  - a bulk import (SweetCatalogEvent RELOADED) clears everything
+ *  - the same happens on every SweetCatalogEvent / StockChange, whoever wrote (reservations,
+ *    queued restocks being flushed, ...). These listeners run before CatalogVersion's, so a
+ *    request that sees the new ETag never gets data cached before the write.
+ *
+ * Loads racing with writes:
+ *  - every eviction first bumps a generation counter (per stripe of sweet ids; one for queries)
+ *  - a load notes the generation before reading the database and only caches what it read if
+ *    the generation is unchanged, checked again after the put (and undone if it moved), so a row
+ *    read before a concurrent write is never cached after that write's eviction
+ *
+ * Hit/miss/eviction counters are registered with Micrometer as
+ * cache.gets / cache.evictions with cache=sweets.items|sweets.stock|sweets.queries.
+ *
+ * Disable with: sweetshop.catalog-cache.enabled=false
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "sweetshop.catalog-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CachingSweetService implements SweetService {
+
+    private static final String ALL_SWEETS = "all";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final SweetServiceImpl delegate;
+
+    private final Cache<Long, Sweet> items;
+    private final Cache<Long, Integer> stock;
+    private final Cache<String, List<Long>> queries;
+
+    // Bumped before every eviction (see "Loads racing with writes")
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong queryGeneration = new AtomicLong();
+
+    public CachingSweetService(SweetServiceImpl delegate,
+                               MeterRegistry meterRegistry,
+                               @Value("${sweetshop.catalog-cache.max-size:10000}") long maxSize,
+                               @Value("${sweetshop.catalog-cache.catalog-ttl:10m}") Duration catalogTtl,
+                               @Value("${sweetshop.catalog-cache.stock-ttl:2s}") Duration stockTtl) {
+        this.delegate = delegate;
+        this.items = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(catalogTtl).recordStats().build();
+        this.stock = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(stockTtl).recordStats().build();
+        this.queries = Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(catalogTtl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "sweets.items");
+        CaffeineCacheMetrics.monitor(meterRegistry, stock, "sweets.stock");
+        CaffeineCacheMetrics.monitor(meterRegistry, queries, "sweets.queries");
+    }
+
+    // -------------------- READS --------------------
+
+    @Override
+    public List<Sweet> getAllSweets() {
+        return query(ALL_SWEETS, delegate::getAllSweets);
+    }
+
+    // Pages, keyset pages and streams are meant for bulk reads and go straight to the database
+
+    @Override
+    public Page<Sweet> getSweetsPage(Pageable pageable) {
+        return delegate.getSweetsPage(pageable);
+    }
+
+    @Override
+    public List<Sweet> getSweetsAfter(Long afterId, int limit) {
+        return delegate.getSweetsAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAllSweets(Consumer<Sweet> consumer) {
+        delegate.streamAllSweets(consumer);
+    }
+
+    @Override
+    public List<Sweet> searchByName(String name) {
+        return query("name:" + name.toLowerCase(), () -> delegate.searchByName(name));
+    }
+
+    @Override
+    public List<Sweet> searchByCategory(String category) {
+        return query("category:" + category.toLowerCase(), () -> delegate.searchByCategory(category));
+    }
+
+    @Override
+    public List<Sweet> searchByPriceRange(double minPrice, double maxPrice) {
+        return query("price:" + minPrice + ":" + maxPrice, () -> delegate.searchByPriceRange(minPrice, maxPrice));
+    }
+
+    /**
+     * Once the search index is loaded, matching ids come from it and the sweets on the page are
+     * assembled from the cache. Before that, full (unpaged) result lists are cached like the other
+     * searches and single pages go to the database.
+     */
+    @Override
+    public Page<Sweet> searchSweets(SweetSearchCriteria criteria, Pageable pageable) {
+        Optional<long[]> ids = delegate.searchIds(criteria);
+        if (ids.isPresent()) {
+            long[] all = ids.get();
+            return new PageImpl<>(assemble(SweetServiceImpl.slice(all, pageable)), pageable, all.length);
+        }
+        if (pageable.isPaged()) {
+            return delegate.searchSweets(criteria, pageable);
+        }
+        return new PageImpl<>(query("search:" + criteria,
+                () -> delegate.searchSweets(criteria, pageable).getContent()));
+    }
+
+    // Field projections are small single queries and go straight to the database
+    @Override
+    public List<Map<String, Object>> getSweetFields(List<String> fields, SweetSearchCriteria criteria) {
+        return delegate.getSweetFields(fields, criteria);
+    }
+
+    // Suggestions already come from the in-memory index
+    @Override
+    public List<SweetSuggestion> suggestNames(String prefix, int limit) {
+        return delegate.suggestNames(prefix, limit);
+    }
+
+    @Override
+    public Optional<Sweet> getSweetById(Long id) {
+        Sweet item = items.getIfPresent(id);
+        Integer quantity = stock.getIfPresent(id);
+        if (item != null && quantity != null) {
+            return Optional.of(copy(item, quantity));
+        }
+        // Missing sweets are not cached, so a sweet added later is found right away
+        long generation = generations.get(stripe(id));
+        Optional<Sweet> loaded = delegate.getSweetById(id);
+        loaded.ifPresent(sweet -> remember(sweet, generation));
+        return loaded.map(sweet -> copy(sweet, sweet.getQuantity()));
+    }
+
+    // -------------------- WRITES --------------------
+
+    @Override
+    public Sweet addSweet(Sweet sweet) {
+        Sweet saved = delegate.addSweet(sweet);
+        evictQueries();
+        return saved;
+    }
+
+    @Override
+    public Sweet updateSweet(Long id, Sweet sweet) {
+        try {
+            return delegate.updateSweet(id, sweet);
+        } finally {
+            evictSweet(id);
+            evictQueries();
+        }
+    }
+
+    @Override
+    public void deleteSweet(Long id) {
+        try {
+            delegate.deleteSweet(id);
+        } finally {
+            evictSweet(id);
+            evictQueries();
+        }
+    }
+
+    @Override
+    public Sweet purchaseSweet(Long id, int quantity) {
+        try {
+            return delegate.purchaseSweet(id, quantity);
+        } finally {
+            evictStock(id);
+        }
+    }
+
+    @Override
+    public boolean tryPurchaseSweet(Long id, int quantity) {
+        try {
+            return delegate.tryPurchaseSweet(id, quantity);
+        } finally {
+            evictStock(id);
+        }
+    }
+
+    @Override
+    public List<PurchaseLineResult> purchaseSweets(List<PurchaseLine> lines) {
+        try {
+            return delegate.purchaseSweets(lines);
+        } finally {
+            lines.forEach(line -> evictStock(line.getSweetId()));
+        }
+    }
+
+    @Override
+    public Sweet restockSweet(Long id, int quantity) {
+        try {
+            return delegate.restockSweet(id, quantity);
+        } finally {
+            evictStock(id);
+        }
+    }
+
+    @Override
+    public Sweet setStockShards(Long id, int shards) {
+        try {
+            return delegate.setStockShards(id, shards);
+        } finally {
+            evictStock(id);
+        }
+    }
+
+    // Queued restocks reach the database later; their StockChange clears the cached stock then
+    @Override
+    public void queueRestocks(List<StockDelta> deltas) {
+        delegate.queueRestocks(deltas);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChange(SweetCatalogEvent event) {
+        if (event.type() == SweetCatalogEvent.Type.RELOADED) {
+            evictAll();
+        } else {
+            evictSweet(event.sweetId());
+        }
+        evictQueries();
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockChange(StockChange change) {
+        evictStock(change.sweetId());
+    }
+
+    // -------------------- HELPERS --------------------
+
+    // Answers a list/search query from cached ids
+    private List<Sweet> query(String key, Supplier<List<Sweet>> loader) {
+        List<Long> ids = queries.getIfPresent(key);
+        if (ids == null) {
+            long queriesBefore = queryGeneration.get();
+            long[] before = generations();
+            List<Sweet> loaded = loader.get();
+            List<Long> loadedIds = new ArrayList<>(loaded.size());
+            for (Sweet sweet : loaded) {
+                remember(sweet, before[stripe(sweet.getId())]);
+                loadedIds.add(sweet.getId());
+            }
+            if (queryGeneration.get() == queriesBefore) {
+                queries.put(key, List.copyOf(loadedIds));
+                if (queryGeneration.get() != queriesBefore) {
+                    queries.invalidate(key);
+                }
+            }
+            return copies(loaded);
+        }
+        return assemble(ids);
+    }
+
+    /**
+     * The sweets with the given ids, in that order, from the cache; only the sweets whose
+     * catalog data or stock entry has expired are loaded.
+     */
+    private List<Sweet> assemble(List<Long> ids) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (items.getIfPresent(id) == null || stock.getIfPresent(id) == null) {
+                missing.add(id);
+            }
+        }
+        Map<Long, Sweet> reloaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            long[] before = generations();
+            for (Sweet sweet : delegate.getSweetsByIds(missing)) {
+                remember(sweet, before[stripe(sweet.getId())]);
+                reloaded.put(sweet.getId(), sweet);
+            }
+        }
+
+        List<Sweet> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Sweet sweet = reloaded.get(id);
+            if (sweet != null) {
+                result.add(copy(sweet, sweet.getQuantity()));
+                continue;
+            }
+            Sweet item = items.getIfPresent(id);
+            Integer quantity = stock.getIfPresent(id);
+            // Skip sweets that vanished between the query and now
+            if (item != null && quantity != null) {
+                result.add(copy(item, quantity));
+            }
+        }
+        return result;
+    }
+
+    // Caches a loaded sweet unless it was evicted after generationBefore was read
+    private void remember(Sweet sweet, long generationBefore) {
+        int stripe = stripe(sweet.getId());
+        if (generations.get(stripe) != generationBefore) {
+            return;
+        }
+        items.put(sweet.getId(), copy(sweet, 0));
+        stock.put(sweet.getId(), sweet.getQuantity());
+        // An eviction between the check and the puts may have missed them
+        if (generations.get(stripe) != generationBefore) {
+            items.invalidate(sweet.getId());
+            stock.invalidate(sweet.getId());
+        }
+    }
+
+    private void evictSweet(Long id) {
+        generations.incrementAndGet(stripe(id));
+        items.invalidate(id);
+        stock.invalidate(id);
+    }
+
+    private void evictStock(Long id) {
+        generations.incrementAndGet(stripe(id));
+        stock.invalidate(id);
+    }
+
+    private void evictAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        items.invalidateAll();
+        stock.invalidateAll();
+    }
+
+    private void evictQueries() {
+        queryGeneration.incrementAndGet();
+        queries.invalidateAll();
+    }
+
+    private long[] generations() {
+        long[] snapshot = new long[GENERATION_STRIPES];
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            snapshot[i] = generations.get(i);
+        }
+        return snapshot;
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+    }
+
+    private static List<Sweet> copies(List<Sweet> sweets) {
+        List<Sweet> result = new ArrayList<>(sweets.size());
+        for (Sweet sweet : sweets) {
+            result.add(copy(sweet, sweet.getQuantity()));
+        }
+        return result;
+    }
+
+    // Callers get their own instances, so nobody can modify what is cached
+    private static Sweet copy(Sweet sweet, int quantity) {
+        Sweet copy = new Sweet(sweet.getName(), sweet.getCategory(), sweet.getPrice(), quantity);
+        copy.setId(sweet.getId());
+        // Not the row's @Version: stock writes move that without evicting the item
+        copy.setEditVersion(sweet.getEditVersion());
+        return copy;
+    }
+}
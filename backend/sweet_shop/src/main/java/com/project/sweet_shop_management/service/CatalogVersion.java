@@ -0,0 +1,73 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CatalogVersion counts catalog writes, for ETag / Last-Modified on the sweet endpoints.
+ *
+ * How it works:
+ *  - Every write published by SweetServiceImpl (SweetCatalogEvent for add/update/delete/import,
+ *    StockChange for purchases, restocks and reservations) bumps the counter after the write.
+ *  - These listeners run last (default order), after CachingSweetService has dropped what the
+ *    write changed, so whatever is read for a new version is at least as new as the write.
+ *  - The ETag is "<start time>-<version>", so tags from before a restart never match again.
+ *  - Checking If-None-Match is a string compare against etag(): no repository call, no Jackson.
+ *
+ * Note:
+ *  - The counter only sees writes made through this instance. With several instances behind
+ *    a load balancer, a write on another instance does not change this instance's ETag.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModifiedMillis = System.currentTimeMillis();
+
+    public long current() {
+        return version.get();
+    }
+
+    public String etag() {
+        return etagOf(version.get());
+    }
+
+    public String etagOf(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    // Tag of another representation of the same version (e.g. "gz" for a gzip-encoded body)
+    public String etagOf(long version, String variant) {
+        return "\"" + epoch + "-" + version + "-" + variant + "\"";
+    }
+
+    // Last-Modified has one-second resolution; If-None-Match takes precedence when both are sent
+    public long lastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    public Instant lastModified() {
+        return Instant.ofEpochMilli(lastModifiedMillis);
+    }
+
+    public void bump() {
+        lastModifiedMillis = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCatalogChange(SweetCatalogEvent event) {
+        bump();
+    }
+
+    @EventListener
+    public void onStockChange(StockChange change) {
+        bump();
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.sweet_shop_management.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a cart or restock batch has a line that cannot be applied (no sweet id, a quantity
+// that is not positive, or lines for one sweet adding up past Integer.MAX_VALUE); answered with 400
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidStockLineException extends RuntimeException {
+
+    public InvalidStockLineException(String message) {
+        super(message);
+    }
+}
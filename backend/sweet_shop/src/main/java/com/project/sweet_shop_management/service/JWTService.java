@@ -1,18 +1,23 @@
 package com.project.sweet_shop_management.service;
 
+import com.project.sweet_shop_management.model.JwtClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
@@ -23,6 +28,11 @@ import java.util.function.Function;
  *  - Create JWT tokens containing user information.
  *  - Extract and validate data (username, expiration) from tokens.
  *
+ * Performance:
+ *  - The signing key and the JwtParser are built once and reused (both are thread-safe).
+ *  - verify() checks the signature and parses the claims exactly once per token.
+ *  - Every key has a version number, so caches of verified tokens can tell when the key rotated.
+ *
  * Why needed:
  *  - JWT (JSON Web Token) is used for stateless authentication.
  *  - This service ensures tokens are securely generated and validated.
@@ -30,23 +40,51 @@ import java.util.function.Function;
 @Service
 public class JWTService {
 
-    // Stores the generated secret key in Base64 encoded format
-    private String secretKey = "";
+    // Name of the claim that carries the user's role
+    public static final String ROLE_CLAIM = "role";
+
+    // Token lifetime; keep it short when JwtFilter runs in stateless mode
+    @Value("${sweetshop.security.jwt.expiration-ms:36000000}")
+    private long expirationMillis = 1000 * 60 * 60 * 10; // 10 hours
+
+    // Incremented on every key rotation
+    private final AtomicLong keyVersions = new AtomicLong();
+
+    // Current key together with its prebuilt parser; replaced as a whole on rotation
+    private volatile SigningKey current;
 
     /**
      * Constructor:
      *  - Generates a random secret key for signing JWT tokens using HmacSHA256.
-     *  - Encodes the key in Base64 for storage and reuse.
+     *  - Builds the parser once so requests do not pay for it.
      */
     public JWTService() {
+        current = newSigningKey();
+    }
+
+    /**
+     * Replaces the signing key. Tokens signed with the previous key stop validating.
+     */
+    public void rotateKey() {
+        current = newSigningKey();
+    }
+
+    /**
+     * @return version of the key currently used for signing and verifying
+     */
+    public long keyVersion() {
+        return current.version();
+    }
+
+    private SigningKey newSigningKey() {
         try {
             // Generate secret key using HmacSHA256 algorithm
             KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGen.generateKey();
-
-            // Store encoded key as a string
-            secretKey = Base64.getEncoder().encodeToString(sk.getEncoded());
-
+            SecretKey key = Keys.hmacShaKeyFor(keyGen.generateKey().getEncoded());
+            JwtParser parser = Jwts.parser()
+                    .verifyWith(key) // Verify using our secret key
+                    .build();
+            return new SigningKey(keyVersions.incrementAndGet(), key, parser);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
@@ -59,30 +97,52 @@ public class JWTService {
      * @return a signed JWT token string
      */
     public String generateToken(String username) {
+        return generateToken(username, null);
+    }
+
+    /**
+     * Generates a JWT token that also carries the user's role, so requests can be
+     * authorized from the token alone (see JwtFilter stateless mode).
+     *
+     * @param username the username to store inside the token
+     * @param role     the user's role, or null to leave the claim out
+     * @return a signed JWT token string
+     */
+    public String generateToken(String username, String role) {
         Map<String, Object> claims = new HashMap<>();
+        if (role != null) {
+            claims.put(ROLE_CLAIM, role);
+        }
         return Jwts.builder()
                 .claims()
                 .add(claims) // Add any custom claims if needed
                 .subject(username) // Store username in the token's subject
                 .issuedAt(new Date(System.currentTimeMillis())) // Token creation time
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours expiry
+                .expiration(new Date(System.currentTimeMillis() + expirationMillis)) // 10 hours by default
                 .and()
-                .signWith(genKey()) // Sign token with secret key
+                .signWith(current.key()) // Sign token with secret key
                 .compact();
     }
 
+    // -------------------- TOKEN VALIDATION PART --------------------
+
     /**
-     * Decodes the Base64 secret key and returns a SecretKey object.
+     * Verifies the signature and expiry of a token and returns its claims.
+     * The token is parsed exactly once.
      *
-     * @return SecretKey used for signing and verifying JWTs
+     * @param token the JWT token
+     * @return the claims, or empty if the token is malformed, wrongly signed or expired
      */
-    private SecretKey genKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(decodedKey);
+    public Optional<JwtClaims> verify(String token) {
+        try {
+            Claims claims = extractAllClaims(token); // Rejects expired tokens too
+            return Optional.of(new JwtClaims(claims.getSubject(),
+                    claims.get(ROLE_CLAIM, String.class), claims.getExpiration()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
-    // -------------------- TOKEN VALIDATION PART --------------------
-
     /**
      * Extracts the username (subject) from a token.
      *
@@ -113,9 +173,7 @@ public class JWTService {
      * @return Claims object containing token data
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(genKey()) // Verify using our secret key
-                .build()
+        return current.parser()
                 .parseSignedClaims(token) // Parse and validate token
                 .getPayload();
     }
@@ -130,28 +188,12 @@ public class JWTService {
      * @return true if valid, false otherwise
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return verify(token)
+                .map(claims -> claims.subject().equals(userDetails.getUsername())
+                        && claims.expiration().after(new Date()))
+                .orElse(false);
     }
 
-    /**
-     * Checks if the token is expired.
-     *
-     * @param token the JWT token
-     * @return true if token is expired, false otherwise
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extracts the expiration date from the token.
-     *
-     * @param token the JWT token
-     * @return expiration date
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private record SigningKey(long version, SecretKey key, JwtParser parser) {
     }
 }
-
@@ -0,0 +1,84 @@
+package com.project.sweet_shop_management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a sweet write again when it fails on the @Version check, up to max-attempts times.
+ *
+ * Between attempts it sleeps a random time between 0 and backoff-ms * 2^(attempt-1)
+ * ("full jitter"), so writers that collided do not collide again in lockstep.
+ * When the attempts run out it throws SweetUpdateConflictException (HTTP 409).
+ *
+ * Only for writes that are still right when applied to a newer row: deltas (purchase, restock,
+ * reserve), and edits whose edit version still matches (see SweetServiceImpl.updateSweet).
+ *
+ * Metrics (tag operation=update|purchase|restock|reserve):
+ *  - sweets.write.conflicts → every failed version check
+ *  - sweets.write.gave-up   → writes that ran out of attempts
+ * Conflicts are logged at DEBUG with the sweet id, to find the hot sweets behind a high rate.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${sweetshop.optimistic.max-attempts:4}") int maxAttempts,
+                           @Value("${sweetshop.optimistic.backoff-ms:5}") long backoffMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T run(String operation, Long sweetId, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts(operation).increment();
+                log.debug("Version conflict on sweet {} during {} (attempt {})", sweetId, operation, attempt);
+                if (attempt >= maxAttempts) {
+                    gaveUp(operation).increment();
+                    log.warn("Giving up {} of sweet {} after {} conflicting attempts", operation, sweetId, attempt);
+                    throw SweetUpdateConflictException.afterRetries(sweetId, attempt);
+                }
+                pause(operation, sweetId, attempt);
+            }
+        }
+    }
+
+    private void pause(String operation, Long sweetId, int attempt) {
+        long bound = backoffMillis << Math.min(attempt - 1, 10);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            // Not a conflict: the caller is being shut down, so keep the flag and stop retrying
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying " + operation + " of sweet " + sweetId);
+        }
+    }
+
+    private Counter conflicts(String operation) {
+        return meterRegistry.counter("sweets.write.conflicts", "operation", operation);
+    }
+
+    private Counter gaveUp(String operation) {
+        return meterRegistry.counter("sweets.write.gave-up", "operation", operation);
+    }
+}
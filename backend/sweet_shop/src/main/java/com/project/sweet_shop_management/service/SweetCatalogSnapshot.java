@@ -0,0 +1,160 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SweetCatalogSnapshot keeps GET /api/sweets serialized as JSON bytes (plus a gzip copy),
+ * so the list endpoint writes a ready byte array instead of running Jackson per request.
+ *
+ * Modes:
+ *  - lazy (default) → the first request after a write renders the list for the new
+ *                     CatalogVersion; later requests for that version reuse the bytes.
+ *  - eager          → writes schedule a rebuild in the background at most once per debounce-ms,
+ *                     so a burst of purchases costs one render, not one per request.
+ *                     Requests always get the last finished snapshot, which may trail the
+ *                     newest write by up to debounce-ms plus the render time.
+ *
+ * The ETag and Last-Modified of a response are derived from the snapshot it serves (its version
+ * and render time), so a client holding them gets 304 until a newer snapshot exists.
+ *
+ * Enable eager mode with: sweetshop.catalog-snapshot.eager=true
+ */
+@Component
+public class SweetCatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(SweetCatalogSnapshot.class);
+
+    private final SweetService sweetService;
+    private final CatalogVersion catalogVersion;
+    private final TaskScheduler taskScheduler;
+    private final ObjectWriter listWriter;
+    private final boolean eager;
+    private final boolean gzip;
+    private final long debounceMillis;
+
+    private volatile Rendered rendered;
+
+    // Set while a background rebuild is scheduled but has not started yet
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    public SweetCatalogSnapshot(SweetService sweetService,
+                                CatalogVersion catalogVersion,
+                                TaskScheduler taskScheduler,
+                                ObjectMapper objectMapper,
+                                @Value("${sweetshop.catalog-snapshot.eager:false}") boolean eager,
+                                @Value("${sweetshop.catalog-snapshot.gzip:true}") boolean gzip,
+                                @Value("${sweetshop.catalog-snapshot.debounce-ms:200}") long debounceMillis) {
+        this.sweetService = sweetService;
+        this.catalogVersion = catalogVersion;
+        this.taskScheduler = taskScheduler;
+        this.listWriter = objectMapper.writerFor(new TypeReference<List<Sweet>>() {
+        });
+        this.eager = eager;
+        this.gzip = gzip;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * The snapshot to serve. Callers must not modify the returned arrays.
+     */
+    public Rendered current() {
+        Rendered last = rendered;
+        if (last != null && (eager || last.version() == catalogVersion.current())) {
+            return last;
+        }
+        return render();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (eager) {
+            render();
+        }
+    }
+
+    @EventListener
+    public void onCatalogChange(SweetCatalogEvent event) {
+        scheduleRebuild();
+    }
+
+    @EventListener
+    public void onStockChange(StockChange change) {
+        scheduleRebuild();
+    }
+
+    // Writes arriving while a rebuild is already scheduled are covered by it
+    private void scheduleRebuild() {
+        if (eager && rebuildScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now().plusMillis(debounceMillis));
+        }
+    }
+
+    private void rebuild() {
+        // Cleared before rendering, so a write during the render schedules the next rebuild
+        rebuildScheduled.set(false);
+        try {
+            render();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the catalog snapshot, serving the previous one", e);
+        }
+    }
+
+    /**
+     * Renders the catalog at the current version, unless another thread just did.
+     * The version is read before loading, so a write that lands meanwhile is never missed.
+     */
+    private synchronized Rendered render() {
+        long version = catalogVersion.current();
+        Rendered last = rendered;
+        if (last != null && last.version() == version) {
+            return last;
+        }
+        try {
+            byte[] json = listWriter.writeValueAsBytes(sweetService.getAllSweets());
+            Rendered fresh = new Rendered(version, json, gzip ? compress(json) : null, System.currentTimeMillis());
+            rendered = fresh;
+            return fresh;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * One rendering of the catalog.
+     *
+     * @param version          CatalogVersion it was rendered at
+     * @param json             the JSON array
+     * @param gzip             the same bytes gzip-compressed; null if gzip is disabled
+     * @param renderedAtMillis when it was rendered (Last-Modified)
+     */
+    public record Rendered(long version, byte[] json, byte[] gzip, long renderedAtMillis) {
+    }
+}
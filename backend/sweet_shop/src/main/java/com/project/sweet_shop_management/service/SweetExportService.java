@@ -0,0 +1,143 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SweetExportService writes the whole sweets table to a stream as CSV or NDJSON.
+ *
+ * Rows come from a forward-only, read-only JDBC cursor (fetch-size rows at a time; needs
+ * useCursorFetch=true on MySQL) and are written straight from the ResultSet, so no entities
+ * are created and memory use does not depend on the catalog size.
+ *
+ * The CSV header and the NDJSON field names match what SweetImportService reads,
+ * so an export can be imported again.
+ */
+@Service
+public class SweetExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    // Sharded sweets (see ShardedStockEngine) keep part of their stock in sweet_stock_shards
+    private static final String SELECT_SQL = "select s.id, s.name, s.category, s.price, "
+            + "s.quantity + coalesce((select sum(k.quantity) from sweet_stock_shards k where k.sweet_id = s.id), 0) as quantity "
+            + "from sweets s order by s.id";
+    private static final String CSV_HEADER = "id,name,category,price,quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public SweetExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                              @Value("${sweetshop.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every sweet to out, gzip-compressed if requested. Does not close out.
+     */
+    public void export(OutputStream out, Format format, boolean gzip) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            if (format == Format.CSV) {
+                writeCsv(writer);
+            } else {
+                writeNdjson(writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    private void writeCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        query(rs -> {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(csvField(rs.getString(2)));
+            writer.write(',');
+            writer.write(csvField(rs.getString(3)));
+            writer.write(',');
+            writer.write(Double.toString(rs.getDouble(4)));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt(5)));
+            writer.write('\n');
+        });
+    }
+
+    private void writeNdjson(Writer writer) throws IOException {
+        // One generator for the whole export; the default root separator is a space, use a newline instead
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            query(rs -> {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong(1));
+                json.writeStringField("name", rs.getString(2));
+                json.writeStringField("category", rs.getString(3));
+                json.writeNumberField("price", rs.getDouble(4));
+                json.writeNumberField("quantity", rs.getInt(5));
+                json.writeEndObject();
+                json.writeRaw('\n');
+            });
+        }
+    }
+
+    private void query(RowWriter rowWriter) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Quotes a field when it contains a comma, quote or line break ("" escapes a quote)
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
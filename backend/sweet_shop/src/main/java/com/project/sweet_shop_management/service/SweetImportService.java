@@ -0,0 +1,281 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.sweet_shop_management.model.ImportResult;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.service.stock.StockEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SweetImportService loads a whole catalog from a CSV or NDJSON stream.
+ *
+ * How it works:
+ *  - The input is read line by line; each row is validated on its own and bad rows are
+ *    reported with their line number instead of failing the import.
+ *  - Valid rows are upserted by the unique name column, batch-size rows per multi-row
+ *    INSERT ... ON DUPLICATE KEY UPDATE statement. Ids come from the database (IDENTITY),
+ *    so nothing has to be fetched per row.
+ *  - If a batch statement fails, its rows are retried one by one to find the bad ones.
+ *  - Only one batch and the first max-errors errors are held in memory, whatever the file size.
+ *
+ * Imported quantities replace the stock (StockEngine.onQuantitiesImported drops the shards of
+ * sharded sweets). After the import a SweetCatalogEvent RELOADED tells caches and search indexes to reload.
+ *
+ * CSV: a header row with the columns name, category, price, quantity (any order);
+ * fields may be quoted with "..." but must not contain line breaks.
+ * NDJSON: one object per line, e.g. {"name":"Kaju Katli","category":"Indian","price":60,"quantity":100}.
+ */
+@Service
+public class SweetImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String UPSERT_PREFIX = "insert into sweets (name, category, price, quantity, version, edit_version) values ";
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, 0, 0)";
+    private static final String UPSERT_SUFFIX = " on duplicate key update category = values(category), "
+            + "price = values(price), quantity = values(quantity), version = version + 1, edit_version = edit_version + 1";
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final StockEngine stockEngine;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int maxErrors;
+
+    // Statement for a full batch, built once
+    private final String fullBatchSql;
+
+    public SweetImportService(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              StockEngine stockEngine,
+                              ApplicationEventPublisher events,
+                              @Value("${sweetshop.import.batch-size:500}") int batchSize,
+                              @Value("${sweetshop.import.max-errors:100}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.stockEngine = stockEngine;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.fullBatchSql = upsertSql(batchSize);
+    }
+
+    public ImportResult importSweets(InputStream input, Format format) throws IOException {
+        if (stockEngine.holdsQuantities()) {
+            // The engine's counters would overwrite the imported quantities on their next flush
+            throw new RuntimeException("Bulk import is not available while stock is held in memory");
+        }
+
+        Progress progress = new Progress();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            CsvColumns columns = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = CsvColumns.fromHeader(parseCsvLine(line));
+                    continue;
+                }
+
+                progress.rows++;
+                try {
+                    batch.add(format == Format.CSV ? columns.toRow(lineNumber, parseCsvLine(line)) : jsonRow(lineNumber, line));
+                } catch (IllegalArgumentException e) {
+                    progress.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    write(batch, progress);
+                    batch.clear();
+                }
+            }
+            write(batch, progress);
+        } finally {
+            if (progress.imported > 0) {
+                events.publishEvent(SweetCatalogEvent.reloaded());
+            }
+        }
+        return progress.result();
+    }
+
+    private void write(List<Row> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            String sql = batch.size() == batchSize ? fullBatchSql : upsertSql(batch.size());
+            jdbcTemplate.update(sql, parameters(batch));
+            stockEngine.onQuantitiesImported(batch.stream().map(Row::name).toList());
+            progress.imported += batch.size();
+        } catch (DataAccessException batchFailure) {
+            for (Row row : batch) {
+                try {
+                    jdbcTemplate.update(upsertSql(1), parameters(List.of(row)));
+                    stockEngine.onQuantitiesImported(List.of(row.name()));
+                    progress.imported++;
+                } catch (DataAccessException e) {
+                    progress.reject(row.line(), "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private Row jsonRow(long line, String json) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return Row.validated(line,
+                node.hasNonNull("name") ? node.get("name").asText() : null,
+                node.hasNonNull("category") ? node.get("category").asText() : null,
+                node.hasNonNull("price") ? node.get("price").asText() : null,
+                node.hasNonNull("quantity") ? node.get("quantity").asText() : null);
+    }
+
+    private static String upsertSql(int rows) {
+        return UPSERT_PREFIX + String.join(", ", Collections.nCopies(rows, UPSERT_ROW)) + UPSERT_SUFFIX;
+    }
+
+    private static Object[] parameters(List<Row> rows) {
+        Object[] args = new Object[rows.size() * 4];
+        int i = 0;
+        for (Row row : rows) {
+            args[i++] = row.name();
+            args[i++] = row.category();
+            args[i++] = row.price();
+            args[i++] = row.quantity();
+        }
+        return args;
+    }
+
+    /**
+     * Splits one CSV line; supports "quoted, fields" and "" as an escaped quote.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Column positions taken from the CSV header
+    private record CsvColumns(int name, int category, int price, int quantity) {
+
+        static CsvColumns fromHeader(List<String> header) {
+            List<String> names = header.stream().map(h -> h.trim().toLowerCase()).toList();
+            if (!names.contains("name") || !names.contains("price") || !names.contains("quantity")) {
+                throw new RuntimeException("CSV header must contain name, price and quantity columns");
+            }
+            return new CsvColumns(names.indexOf("name"), names.indexOf("category"),
+                    names.indexOf("price"), names.indexOf("quantity"));
+        }
+
+        Row toRow(long line, List<String> fields) {
+            return Row.validated(line, field(fields, name), field(fields, category),
+                    field(fields, price), field(fields, quantity));
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    private record Row(long line, String name, String category, double price, int quantity) {
+
+        static Row validated(long line, String name, String category, String price, String quantity) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Name is required");
+            }
+            if (name.trim().length() > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Name is longer than " + MAX_NAME_LENGTH + " characters");
+            }
+            double parsedPrice;
+            int parsedQuantity;
+            try {
+                parsedPrice = Double.parseDouble(price == null ? "" : price.trim());
+                parsedQuantity = Integer.parseInt(quantity == null ? "" : quantity.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Price and quantity must be numbers");
+            }
+            if (!Double.isFinite(parsedPrice) || parsedPrice < 0) {
+                throw new IllegalArgumentException("Price must be zero or more");
+            }
+            if (parsedQuantity < 0) {
+                throw new IllegalArgumentException("Quantity must be zero or more");
+            }
+            String trimmedCategory = category == null || category.isBlank() ? null : category.trim();
+            return new Row(line, name.trim(), trimmedCategory, parsedPrice, parsedQuantity);
+        }
+    }
+
+    private final class Progress {
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportResult.RowError(line, message));
+            }
+        }
+
+        private ImportResult result() {
+            return new ImportResult(rows, imported, failed, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
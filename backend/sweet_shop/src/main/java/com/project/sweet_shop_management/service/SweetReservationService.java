@@ -0,0 +1,272 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.Reservation;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.SweetSold;
+import com.project.sweet_shop_management.service.stock.RestockWriteBehind;
+import com.project.sweet_shop_management.service.stock.StockEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SweetReservationService holds stock for a customer while they pay.
+ *
+ * How it works:
+ *  - reserve() takes the quantity out of stock through the StockEngine and keeps the hold in memory.
+ *  - confirm() only drops the hold: the stock is already gone, so the purchase is complete
+ *    (and reported to the sales ledger).
+ *  - cancel() and expiry put the quantity back through RestockWriteBehind, so returns are
+ *    journaled and applied in batches instead of one UPDATE each.
+ *  - Expiry uses one DelayQueue ordered by deadline; sweep() drains only the holds that are due,
+ *    so there is no thread or database poll per reservation. Confirmed/cancelled holds stay in
+ *    the queue and are skipped when they come due.
+ *  - Active holds are written to snapshot-file every persist-interval-ms (only if something
+ *    changed) and on shutdown, and loaded again at startup; holds that expired while the
+ *    application was down are returned to stock right away.
+ *
+ * Note:
+ *  - Holds taken or settled after the last snapshot are lost on a crash: a lost hold keeps its
+ *    stock taken, and a hold confirmed after the snapshot comes back and is returned on expiry.
+ *    Keep persist-interval-ms short.
+ *  - With sweetshop.stock.engine=memory, reserve and confirm never touch the database.
+ *
+ * Configure with: sweetshop.reservations.* (ttl, max-ttl, snapshot-file, persist/sweep intervals)
+ */
+@Service
+public class SweetReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SweetReservationService.class);
+
+    private final StockEngine stockEngine;
+    private final RestockWriteBehind restockQueue;
+    private final OptimisticRetry retry;
+    private final ApplicationEventPublisher events;
+    private final Path snapshotFile;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    // Active holds by hold id; whoever removes a hold from here settles it
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // All holds ordered by deadline, including settled ones (skipped by sweep)
+    private final DelayQueue<Hold> deadlines = new DelayQueue<>();
+
+    // Set when holds changed since the last snapshot
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public SweetReservationService(StockEngine stockEngine,
+                                   RestockWriteBehind restockQueue,
+                                   OptimisticRetry retry,
+                                   ApplicationEventPublisher events,
+                                   @Value("${sweetshop.reservations.snapshot-file:reservation-holds.snapshot}") Path snapshotFile,
+                                   @Value("${sweetshop.reservations.ttl:10m}") Duration defaultTtl,
+                                   @Value("${sweetshop.reservations.max-ttl:30m}") Duration maxTtl) {
+        this.stockEngine = stockEngine;
+        this.restockQueue = restockQueue;
+        this.retry = retry;
+        this.events = events;
+        this.snapshotFile = snapshotFile;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    /**
+     * Takes qty units of the sweet out of stock and holds them for ttl (default ttl if null).
+     *
+     * @return the hold, or null if there is not enough stock
+     * @throws RuntimeException if the sweet does not exist or the arguments are invalid
+     */
+    public Reservation reserve(Long sweetId, int qty, Duration ttl) {
+        if (qty <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        Duration holdFor = ttl != null ? ttl : defaultTtl;
+        if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(maxTtl) > 0) {
+            throw new RuntimeException("Reservation ttl must be between 0 and " + maxTtl);
+        }
+        if (!retry.run("reserve", sweetId, () -> stockEngine.tryPurchase(sweetId, qty))) {
+            return null;
+        }
+        events.publishEvent(StockChange.changed(sweetId));
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), sweetId, qty,
+                System.currentTimeMillis() + holdFor.toMillis());
+        holds.put(hold.id, hold);
+        deadlines.add(hold);
+        dirty.set(true);
+        return hold.view();
+    }
+
+    /**
+     * Completes the purchase held by holdId.
+     *
+     * @return false if the hold does not exist, was cancelled or has expired
+     */
+    public boolean confirm(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        dirty.set(true);
+        events.publishEvent(new SweetSold(hold.sweetId, hold.quantity));
+        return true;
+    }
+
+    /**
+     * Releases the hold and returns its quantity to stock.
+     *
+     * @return false if the hold does not exist, was confirmed or has expired
+     */
+    public boolean cancel(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        release(hold);
+        return true;
+    }
+
+    public int activeCount() {
+        return holds.size();
+    }
+
+    /**
+     * Returns every expired hold to stock. Only holds that are due are taken off the queue.
+     */
+    @Scheduled(fixedDelayString = "${sweetshop.reservations.sweep-interval-ms:1000}")
+    public void sweep() {
+        Hold due;
+        while ((due = deadlines.poll()) != null) {
+            // Skip holds that were confirmed or cancelled in the meantime
+            if (holds.remove(due.id, due)) {
+                release(due);
+            }
+        }
+    }
+
+    /**
+     * Writes all active holds to the snapshot file (via a temp file and an atomic rename).
+     */
+    @Scheduled(fixedDelayString = "${sweetshop.reservations.persist-interval-ms:1000}")
+    public void persist() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "holds", ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Hold hold : holds.values()) {
+                    out.write(hold.id + " " + hold.sweetId + " " + hold.quantity + " " + hold.expiresAtMillis);
+                    out.newLine();
+                }
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write reservation snapshot {}, will retry", snapshotFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dirty.set(true);
+        persist();
+    }
+
+    /**
+     * Loads the holds of the last snapshot; those that expired meanwhile are returned to stock.
+     */
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        List<Hold> loaded = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] parts = line.split(" ");
+                loaded.add(new Hold(parts[0], Long.parseLong(parts[1]), Integer.parseInt(parts[2]),
+                        Long.parseLong(parts[3])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read reservation snapshot " + snapshotFile, e);
+        }
+
+        for (Hold hold : loaded) {
+            holds.put(hold.id, hold);
+            deadlines.add(hold);
+        }
+        // Expired ones come off the queue right away
+        sweep();
+        log.info("Restored {} reservation holds from {}", holds.size(), snapshotFile);
+    }
+
+    private void release(Hold hold) {
+        restockQueue.accept(hold.sweetId, hold.quantity);
+        dirty.set(true);
+    }
+
+    /**
+     * One hold; ordered in the DelayQueue by its deadline.
+     */
+    private static final class Hold implements Delayed {
+
+        private final String id;
+        private final Long sweetId;
+        private final int quantity;
+        private final long expiresAtMillis;
+
+        private Hold(String id, Long sweetId, int quantity, long expiresAtMillis) {
+            this.id = id;
+            this.sweetId = sweetId;
+            this.quantity = quantity;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Hold) other).expiresAtMillis);
+        }
+
+        private Reservation view() {
+            return new Reservation(id, sweetId, quantity, Instant.ofEpochMilli(expiresAtMillis));
+        }
+    }
+}
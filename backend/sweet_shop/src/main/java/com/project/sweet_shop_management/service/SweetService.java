@@ -1,19 +1,38 @@
 package com.project.sweet_shop_management.service;
 
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.StockDelta;
 import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface SweetService {
     Sweet addSweet(Sweet sweet);
     List<Sweet> getAllSweets();
+    Page<Sweet> getSweetsPage(Pageable pageable);
+    List<Sweet> getSweetsAfter(Long afterId, int limit);
+    void streamAllSweets(Consumer<Sweet> consumer);
     List<Sweet> searchByName(String name);
     List<Sweet> searchByCategory(String category);
     List<Sweet> searchByPriceRange(double minPrice, double maxPrice);
+    Page<Sweet> searchSweets(SweetSearchCriteria criteria, Pageable pageable);
+    List<Map<String, Object>> getSweetFields(List<String> fields, SweetSearchCriteria criteria);
+    List<SweetSuggestion> suggestNames(String prefix, int limit);
     Optional<Sweet> getSweetById(Long id);
     Sweet updateSweet(Long id, Sweet sweet);
     void deleteSweet(Long id);
     Sweet purchaseSweet(Long id, int quantity);
+    boolean tryPurchaseSweet(Long id, int quantity);
+    List<PurchaseLineResult> purchaseSweets(List<PurchaseLine> lines);
     Sweet restockSweet(Long id, int quantity);
+    Sweet setStockShards(Long id, int shards);
+    void queueRestocks(List<StockDelta> deltas);
 }
@@ -1,60 +1,307 @@
 package com.project.sweet_shop_management.service;
 
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.StockDelta;
 import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSold;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import com.project.sweet_shop_management.repository.SweetFieldsRepository;
 import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.repository.SweetSpecifications;
+import com.project.sweet_shop_management.service.search.SweetSearchIndex;
+import com.project.sweet_shop_management.service.stock.RestockWriteBehind;
+import com.project.sweet_shop_management.service.stock.StockEngine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class SweetServiceImpl implements SweetService {
 
     private final SweetRepository sweetRepository;
 
-    public SweetServiceImpl(SweetRepository sweetRepository) {
+    // Decides purchases and restocks (JPA or in-memory, see sweetshop.stock.engine)
+    private final StockEngine stockEngine;
+
+    // In-memory name/category/price indexes; kept up to date through SweetCatalogEvent
+    private final SweetSearchIndex searchIndex;
+
+    private final ApplicationEventPublisher events;
+
+    // Queued restocks from the warehouse feed, applied in batches
+    private final RestockWriteBehind restockQueue;
+
+    // Retries writes that lost an optimistic-locking race
+    private final OptimisticRetry retry;
+
+    // Used to detach streamed rows so the persistence context stays empty
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SweetServiceImpl(SweetRepository sweetRepository, StockEngine stockEngine,
+                            SweetSearchIndex searchIndex, ApplicationEventPublisher events,
+                            RestockWriteBehind restockQueue, OptimisticRetry retry) {
         this.sweetRepository = sweetRepository;
+        this.stockEngine = stockEngine;
+        this.searchIndex = searchIndex;
+        this.events = events;
+        this.restockQueue = restockQueue;
+        this.retry = retry;
     }
 
     @Override
     public Sweet addSweet(Sweet sweet) {
-        return sweetRepository.save(sweet);
+        Sweet saved = sweetRepository.save(sweet);
+        stockEngine.onSweetSaved(saved);
+        events.publishEvent(SweetCatalogEvent.saved(saved));
+        return saved;
     }
 
     @Override
     public List<Sweet> getAllSweets() {
-        return sweetRepository.findAll();
+        return withStock(sweetRepository.findAll());
+    }
+
+    /**
+     * Returns one page of the catalog. Always sorted by id, so pages are stable
+     * while sweets are added or removed.
+     */
+    @Override
+    public Page<Sweet> getSweetsPage(Pageable pageable) {
+        Page<Sweet> page = sweetRepository.findAll(
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id")));
+        withStock(page.getContent());
+        return page;
     }
 
+    /**
+     * Keyset pagination: the next limit sweets with an id greater than afterId.
+     * Unlike offset pages, the cost does not grow with the position in the catalog.
+     */
+    @Override
+    public List<Sweet> getSweetsAfter(Long afterId, int limit) {
+        return withStock(sweetRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)));
+    }
+
+    /**
+     * Hands every sweet to the consumer as it is read from a database cursor.
+     * Rows are detached right away, so memory use does not depend on catalog size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllSweets(Consumer<Sweet> consumer) {
+        try (Stream<Sweet> sweets = sweetRepository.streamAllByOrderByIdAsc()) {
+            sweets.forEach(sweet -> {
+                stockEngine.fillQuantities(List.of(sweet));
+                consumer.accept(sweet);
+                entityManager.detach(sweet);
+            });
+        }
+    }
+
+    /**
+     * Name search, answered by the in-memory index once it is loaded: the best
+     * sweetshop.search.max-results matches, best first. Falls back to a LIKE query
+     * (the first max-results matches by id) before that.
+     */
     @Override
     public List<Sweet> searchByName(String name) {
-        return sweetRepository.findByNameContainingIgnoreCase(name);
+        if (searchIndex.isReady()) {
+            return getSweetsInOrder(searchIndex.searchByName(name));
+        }
+        return withStock(sweetRepository.findByNameContainingIgnoreCaseOrderByIdAsc(name,
+                Limit.of(searchIndex.maxResults())));
     }
 
     @Override
     public List<Sweet> searchByCategory(String category) {
-        return sweetRepository.findByCategoryContainingIgnoreCase(category);
+        if (searchIndex.isReady()) {
+            return getSweetsInOrder(searchIndex.searchByCategory(category));
+        }
+        return withStock(sweetRepository.findByCategoryContainingIgnoreCaseOrderByIdAsc(category,
+                Limit.of(searchIndex.maxResults())));
     }
 
+    /**
+     * Price range search, answered by the in-memory price index once it is loaded.
+     * Results come cheapest first.
+     */
     @Override
     public List<Sweet> searchByPriceRange(double minPrice, double maxPrice) {
-        return sweetRepository.findByPriceBetween(minPrice, maxPrice);
+        if (searchIndex.isReady()) {
+            long[] ids = searchIndex.searchByPriceRange(minPrice, maxPrice);
+            return getSweetsInOrder(Arrays.stream(ids).boxed().toList());
+        }
+        return withStock(sweetRepository.findByPriceBetweenOrderByPriceAscIdAsc(minPrice, maxPrice));
+    }
+
+    /**
+     * Search that applies every given criterion together (name AND category AND price bounds),
+     * sorted by id. An unpaged Pageable returns all matches. Once the search index is loaded,
+     * matches (price bounds included) come from it and only the sweets on the page are read.
+     */
+    @Override
+    public Page<Sweet> searchSweets(SweetSearchCriteria criteria, Pageable pageable) {
+        Optional<long[]> ids = searchIds(criteria);
+        if (ids.isPresent()) {
+            long[] all = ids.get();
+            return new PageImpl<>(getSweetsInOrder(slice(all, pageable)), pageable, all.length);
+        }
+        Pageable byId = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"))
+                : Pageable.unpaged(Sort.by("id"));
+        Page<Sweet> page = sweetRepository.findAll(SweetSpecifications.matching(criteria), byId);
+        withStock(page.getContent());
+        return page;
+    }
+
+    /**
+     * Only the given fields of every sweet matching criteria (null for the whole catalog), sorted by id.
+     * Columns that are not asked for are never read; quantity comes from the stock engine like everywhere else.
+     */
+    @Override
+    public List<Map<String, Object>> getSweetFields(List<String> fields, SweetSearchCriteria criteria) {
+        for (String field : fields) {
+            if (!SweetFieldsRepository.FIELDS.contains(field)) {
+                throw new RuntimeException("Unknown field: " + field);
+            }
+        }
+        List<Map<String, Object>> rows = sweetRepository.findFields(fields,
+                criteria == null ? null : SweetSpecifications.matching(criteria));
+        if (fields.contains("quantity")) {
+            List<Sweet> stock = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Sweet sweet = new Sweet();
+                sweet.setId((Long) row.get("id"));
+                sweet.setQuantity((Integer) row.get("quantity"));
+                stock.add(sweet);
+            }
+            stockEngine.fillQuantities(stock);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).put("quantity", stock.get(i).getQuantity());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Typeahead: up to limit (id, name) pairs whose name, or a word in it, starts with prefix.
+     */
+    @Override
+    public List<SweetSuggestion> suggestNames(String prefix, int limit) {
+        if (searchIndex.isReady()) {
+            return searchIndex.suggest(prefix, limit);
+        }
+        return sweetRepository.findByNameStartingWithIgnoreCaseOrderByNameAsc(prefix, Limit.of(limit)).stream()
+                .map(sweet -> new SweetSuggestion(sweet.getId(), sweet.getName()))
+                .toList();
     }
 
     @Override
     public Optional<Sweet> getSweetById(Long id) {
-        return sweetRepository.findById(id);
+        Optional<Sweet> sweet = sweetRepository.findById(id);
+        sweet.ifPresent(found -> stockEngine.fillQuantities(List.of(found)));
+        return sweet;
+    }
+
+    // Loads several sweets by primary key in one query (order not guaranteed); used by CachingSweetService
+    public List<Sweet> getSweetsByIds(Collection<Long> ids) {
+        return withStock(sweetRepository.findAllById(ids));
     }
 
+    // Ids of every sweet matching criteria (sorted by id) from the search index, empty until it is loaded;
+    // used by CachingSweetService to assemble pages from its cache
+    public Optional<long[]> searchIds(SweetSearchCriteria criteria) {
+        return searchIndex.isReady() ? Optional.of(searchIndex.search(criteria)) : Optional.empty();
+    }
+
+    // The ids on one page (all of them when unpaged)
+    static List<Long> slice(long[] ids, Pageable pageable) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ids.length) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ids.length) : ids.length;
+        List<Long> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(ids[i]);
+        }
+        return page;
+    }
+
+    // Loads sweets by primary key and returns them in the order of ids (ids that no longer exist are skipped)
+    private List<Sweet> getSweetsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Sweet> byId = new HashMap<>();
+        for (Sweet sweet : sweetRepository.findAllById(ids)) {
+            byId.put(sweet.getId(), sweet);
+        }
+        List<Sweet> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Sweet sweet = byId.get(id);
+            if (sweet != null) {
+                result.add(sweet);
+            }
+        }
+        return withStock(result);
+    }
+
+    // Adds stock the engine keeps outside the sweets table (sharded sweets) to the loaded rows
+    private List<Sweet> withStock(List<Sweet> sweets) {
+        stockEngine.fillQuantities(sweets);
+        return sweets;
+    }
+
+    /**
+     * Replaces the sweet's fields. updatedSweet.getEditVersion() must be the edit version the client
+     * read: if another edit (PUT or import) happened since, nothing is changed and
+     * SweetUpdateConflictException (409) is thrown.
+     * Purchases and restocks do not move the edit version, so they never block an edit. If one
+     * lands between loading and saving the row (@Version conflict), the edit is checked and
+     * applied again on the fresh row - as if it had arrived just after that purchase.
+     */
     @Override
     public Sweet updateSweet(Long id, Sweet updatedSweet) {
+        return retry.run("update", id, () -> applyUpdate(id, updatedSweet));
+    }
+
+    private Sweet applyUpdate(Long id, Sweet updatedSweet) {
         return sweetRepository.findById(id)
                 .map(sweet -> {
+                    if (sweet.getEditVersion() != updatedSweet.getEditVersion()) {
+                        throw SweetUpdateConflictException.outdated(id, updatedSweet.getEditVersion());
+                    }
                     sweet.setName(updatedSweet.getName());
                     sweet.setCategory(updatedSweet.getCategory());
                     sweet.setPrice(updatedSweet.getPrice());
                     sweet.setQuantity(updatedSweet.getQuantity());
-                    return sweetRepository.save(sweet);
+                    sweet.setEditVersion(sweet.getEditVersion() + 1);
+                    Sweet saved = sweetRepository.save(sweet);
+                    stockEngine.onSweetSaved(saved);
+                    events.publishEvent(SweetCatalogEvent.saved(saved));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Sweet not found"));
     }
@@ -62,26 +309,89 @@ public class SweetServiceImpl implements SweetService {
     @Override
     public void deleteSweet(Long id) {
         sweetRepository.deleteById(id);
+        stockEngine.onSweetDeleted(id);
+        events.publishEvent(SweetCatalogEvent.deleted(id));
     }
 
     @Override
     public Sweet purchaseSweet(Long id, int qty) {
-        Sweet sweet = sweetRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+        Sweet sweet = retry.run("purchase", id, () -> stockEngine.purchase(id, qty));
+        events.publishEvent(StockChange.of(sweet));
+        events.publishEvent(new SweetSold(id, qty));
+        return sweet;
+    }
 
-        if (sweet.getQuantity() < qty) {
-            throw new RuntimeException("Not enough stock available");
+    @Override
+    public boolean tryPurchaseSweet(Long id, int qty) {
+        boolean purchased = retry.run("purchase", id, () -> stockEngine.tryPurchase(id, qty));
+        if (purchased) {
+            events.publishEvent(StockChange.changed(id));
+            events.publishEvent(new SweetSold(id, qty));
         }
-        sweet.setQuantity(sweet.getQuantity() - qty);
-        return sweetRepository.save(sweet);
+        return purchased;
+    }
+
+    /**
+     * Buys a whole cart in one transaction. Lines for the same sweet are merged and the
+     * lines are sorted by id, so concurrent carts always touch rows in the same order.
+     * Results are returned in id order.
+     */
+    @Override
+    public List<PurchaseLineResult> purchaseSweets(List<PurchaseLine> lines) {
+        Map<Long, Integer> merged = new TreeMap<>();
+        for (PurchaseLine line : lines) {
+            if (line.getSweetId() == null || line.getQuantity() <= 0) {
+                throw new InvalidStockLineException("Each line needs a sweet id and a positive quantity");
+            }
+            try {
+                merged.merge(line.getSweetId(), line.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new InvalidStockLineException("Quantity of sweet " + line.getSweetId() + " is too large");
+            }
+        }
+
+        List<PurchaseLine> sorted = new ArrayList<>(merged.size());
+        merged.forEach((id, qty) -> sorted.add(new PurchaseLine(id, qty)));
+        List<PurchaseLineResult> results = stockEngine.purchaseAll(sorted);
+        for (PurchaseLineResult result : results) {
+            if (result.isPurchased()) {
+                events.publishEvent(new StockChange(result.getSweetId(), result.getRemainingQuantity()));
+                events.publishEvent(new SweetSold(result.getSweetId(), result.getQuantity()));
+            }
+        }
+        return results;
     }
 
     @Override
     public Sweet restockSweet(Long id, int qty) {
-        Sweet sweet = sweetRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sweet not found"));
-        sweet.setQuantity(sweet.getQuantity() + qty);
-        return sweetRepository.save(sweet);
+        Sweet sweet = retry.run("restock", id, () -> stockEngine.restock(id, qty));
+        events.publishEvent(StockChange.of(sweet));
+        return sweet;
     }
-}
 
+    /**
+     * Splits a hot sweet's stock over several rows so purchases stop queuing on one row lock
+     * (see ShardedStockEngine); 0 or 1 shards turns it off again.
+     */
+    @Override
+    public Sweet setStockShards(Long id, int shards) {
+        stockEngine.setShardCount(id, shards);
+        return getSweetById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+    }
+
+    /**
+     * Queues restocks without waiting for the database; they are applied within one
+     * flush interval (see RestockWriteBehind). All lines are checked before any is queued.
+     */
+    @Override
+    public void queueRestocks(List<StockDelta> deltas) {
+        for (StockDelta delta : deltas) {
+            if (delta.getSweetId() == null || delta.getQuantity() <= 0) {
+                throw new InvalidStockLineException("Each line needs a sweet id and a positive quantity");
+            }
+        }
+        for (StockDelta delta : deltas) {
+            restockQueue.accept(delta.getSweetId(), delta.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.project.sweet_shop_management.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a write kept losing the optimistic-locking race (see OptimisticRetry), or when a full
+// update was based on an outdated edit version of the sweet; answered with 409
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SweetUpdateConflictException extends RuntimeException {
+
+    private SweetUpdateConflictException(String message) {
+        super(message);
+    }
+
+    public static SweetUpdateConflictException afterRetries(Long sweetId, int attempts) {
+        return new SweetUpdateConflictException(
+                "Sweet " + sweetId + " was changed concurrently, gave up after " + attempts + " attempts");
+    }
+
+    public static SweetUpdateConflictException outdated(Long sweetId, long basedOnEditVersion) {
+        return new SweetUpdateConflictException(
+                "Sweet " + sweetId + " was edited since version " + basedOnEditVersion + ", reload it and try again");
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.sweet_shop_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * UserDetailsCache keeps recently used UserDetails in memory, keyed by username.
+ *
+ * Why needed:
+ *  - JwtFilter needs the user's authorities on every authenticated request.
+ *  - Without a cache that is one "users" table query per API call.
+ *
+ * Entries expire after a fixed time and are evicted explicitly whenever a user row is
+ * written (see AuthService), so role and password changes are picked up immediately.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final MyUserDetailService userDetailService;
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(MyUserDetailService userDetailService,
+                            MeterRegistry meterRegistry,
+                            @Value("${sweetshop.user-cache.max-size:10000}") long maxSize,
+                            @Value("${sweetshop.user-cache.ttl:5m}") Duration ttl) {
+        this.userDetailService = userDetailService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.details");
+    }
+
+    /**
+     * Returns the user details, loading them from the database on a miss.
+     *
+     * @throws UsernameNotFoundException if no user has this name (not cached)
+     */
+    public UserDetails get(String username) {
+        return cache.get(username, userDetailService::loadUserByUsername);
+    }
+
+    /**
+     * Drops the cached entry so the next request reloads the user from the database.
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.sweet_shop_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.project.sweet_shop_management.model.JwtClaims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VerifiedTokenCache remembers tokens that already passed JWTService.verify.
+ *
+ * Why needed:
+ *  - Clients reuse the same token for thousands of requests, and every request would
+ *    otherwise pay for HMAC verification and JSON claim parsing again.
+ *
+ * Details:
+ *  - Keys are SHA-256 digests of the token, so raw bearer tokens are never kept in memory.
+ *  - Each entry expires exactly when its token expires.
+ *  - Entries remember the key version they were verified with and are ignored after
+ *    JWTService.rotateKey().
+ *
+ * Metrics: cache.gets / cache.size with cache=jwt.verified, plus jwt.verified.hit.ratio.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JWTService jwtService;
+    private final Cache<String, Entry> cache;
+
+    public VerifiedTokenCache(JWTService jwtService,
+                              MeterRegistry meterRegistry,
+                              @Value("${sweetshop.token-cache.max-size:50000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireWithToken())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        Gauge.builder("jwt.verified.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of bearer tokens answered without verifying the signature")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same contract as JWTService.verify, but answers repeat tokens from memory.
+     */
+    public Optional<JwtClaims> verify(String token) {
+        String digest = digest(token);
+        long keyVersion = jwtService.keyVersion();
+
+        Entry entry = cache.getIfPresent(digest);
+        if (entry != null && entry.keyVersion() == keyVersion
+                && entry.claims().expiration().getTime() > System.currentTimeMillis()) {
+            return Optional.of(entry.claims());
+        }
+
+        Optional<JwtClaims> claims = jwtService.verify(token);
+        if (claims.isPresent() && claims.get().expiration() != null) {
+            cache.put(digest, new Entry(keyVersion, claims.get()));
+        } else if (entry != null) {
+            cache.invalidate(digest);
+        }
+        return claims;
+    }
+
+    /**
+     * @return number of cached tokens (approximate)
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record Entry(long keyVersion, JwtClaims claims) {
+    }
+
+    // Expires every entry at the expiry time of its own token
+    private static final class ExpireWithToken implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            long millisLeft = entry.claims().expiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
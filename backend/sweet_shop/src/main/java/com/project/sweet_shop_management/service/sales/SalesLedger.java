@@ -0,0 +1,217 @@
+package com.project.sweet_shop_management.service.sales;
+
+import com.project.sweet_shop_management.model.Sale;
+import com.project.sweet_shop_management.model.SalesStats;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSold;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SalesLedger records every purchase in an append-only sales table and keeps running totals
+ * in memory, so GET /api/sweets/stats never runs a GROUP BY over the ledger.
+ *
+ * How it works:
+ *  - Purchases publish SweetSold. The listener prices the sale with the sweet's current price
+ *    and category, adds it to the SalesRollup and queues the ledger row. Nothing is written yet.
+ *  - flush() runs on a fixed delay, or early when flush-threshold rows are queued, and writes
+ *    the queued rows as one JDBC batch insert. A failed batch stays queued and is retried.
+ *  - Name, category and price come from SweetCatalogEvent (add/update/import); a sweet that
+ *    was never seen is read once from the database at its first sale.
+ *  - At startup the totals are rebuilt from the ledger once (per sweet and category), and the
+ *    minute/hour windows from the rows still inside them.
+ *
+ * Note:
+ *  - Sales queued at the moment of a crash (at most one flush interval) are missing from the
+ *    ledger, although their stock is gone. The totals are rebuilt from what was written.
+ *  - Totals are per instance: with several instances each one counts its own sales until
+ *    its next restart.
+ *
+ * Configure with: sweetshop.sales.* (flush interval and threshold, minutes and hours kept)
+ */
+@Component
+public class SalesLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesLedger.class);
+
+    private static final String INSERT_SQL =
+            "insert into sales (sweet_id, category, quantity, unit_price, sold_at) values (?, ?, ?, ?, ?)";
+    private static final String TOTALS_SQL =
+            "select sweet_id, category, sum(quantity), sum(round(unit_price * 100) * quantity) from sales group by sweet_id, category";
+    private static final String RECENT_SQL =
+            "select sold_at, quantity, round(unit_price * 100) * quantity from sales where sold_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SweetRepository sweetRepository;
+    private final TaskScheduler taskScheduler;
+    private final int flushThreshold;
+
+    // Guards itself and pending
+    private final SalesRollup rollup;
+
+    // Ledger rows not written yet, oldest first
+    private List<Sale> pending = new ArrayList<>();
+
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    public SalesLedger(JdbcTemplate jdbcTemplate,
+                       SweetRepository sweetRepository,
+                       TaskScheduler taskScheduler,
+                       @Value("${sweetshop.sales.flush-threshold:1000}") int flushThreshold,
+                       @Value("${sweetshop.sales.minutes-kept:1440}") int minutesKept,
+                       @Value("${sweetshop.sales.hours-kept:720}") int hoursKept) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sweetRepository = sweetRepository;
+        this.taskScheduler = taskScheduler;
+        this.flushThreshold = flushThreshold;
+        this.rollup = new SalesRollup(minutesKept, hoursKept);
+    }
+
+    /**
+     * Rebuilds the totals from the ledger written by earlier runs.
+     */
+    @PostConstruct
+    public void load() {
+        List<Long> sold = new ArrayList<>();
+        synchronized (rollup) {
+            jdbcTemplate.query(TOTALS_SQL, rs -> {
+                long sweetId = rs.getLong(1);
+                rollup.addTotals(sweetId, rs.getString(2), rs.getLong(3), rs.getLong(4));
+                sold.add(sweetId);
+            });
+            Timestamp since = new Timestamp(System.currentTimeMillis() - rollup.hoursKeptMillis());
+            jdbcTemplate.query(RECENT_SQL, rs -> {
+                rollup.addWindows(rs.getTimestamp(1).getTime(), rs.getLong(2), rs.getLong(3));
+            }, since);
+            // Names for the top sellers; sweets that no longer exist keep a null name
+            for (Sweet sweet : sweetRepository.findAllById(sold)) {
+                rollup.describe(sweet.getId(), sweet.getName(), sweet.getCategory(), sweet.getPrice());
+            }
+        }
+    }
+
+    @EventListener
+    public void onSweetSold(SweetSold sold) {
+        boolean described;
+        synchronized (rollup) {
+            described = rollup.isDescribed(sold.sweetId());
+        }
+        if (!described) {
+            Optional<Sweet> sweet = sweetRepository.findById(sold.sweetId());
+            if (sweet.isEmpty()) {
+                log.warn("Sale of unknown sweet {} not recorded", sold.sweetId());
+                return;
+            }
+            describe(sweet.get());
+        }
+
+        int queued;
+        synchronized (rollup) {
+            Sale sale = rollup.record(sold.sweetId(), sold.quantity(), System.currentTimeMillis());
+            if (sale == null) {
+                // Forgotten by a bulk import in between; counted at its next sale
+                log.warn("Sale of sweet {} not recorded, its price is unknown", sold.sweetId());
+                return;
+            }
+            pending.add(sale);
+            queued = pending.size();
+        }
+        if (queued >= flushThreshold && earlyFlushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    @EventListener
+    public void onCatalogChange(SweetCatalogEvent event) {
+        switch (event.type()) {
+            case SAVED -> describe(event.sweet());
+            // Past sales of a deleted sweet still count
+            case DELETED -> {
+            }
+            case RELOADED -> {
+                synchronized (rollup) {
+                    rollup.forgetDescriptions();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the queued ledger rows in one batch.
+     */
+    @Scheduled(fixedDelayString = "${sweetshop.sales.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        earlyFlushScheduled.set(false);
+        List<Sale> batch;
+        synchronized (rollup) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Sale sale : batch) {
+            rows.add(new Object[]{sale.getSweetId(), sale.getCategory(), sale.getQuantity(),
+                    sale.getUnitPrice(), Timestamp.from(sale.getSoldAt())});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} sales to the ledger, will retry", batch.size(), e);
+            synchronized (rollup) {
+                batch.addAll(pending);
+                pending = batch;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    // Number of ledger rows not written yet
+    public int pendingCount() {
+        synchronized (rollup) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Totals, the top sellers and recent windows; no database access.
+     *
+     * @param top     number of top sellers
+     * @param minutes length of the minute window
+     * @param hours   length of the hour window
+     */
+    public SalesStats stats(int top, int minutes, int hours) {
+        synchronized (rollup) {
+            return rollup.stats(top, System.currentTimeMillis(), minutes, hours);
+        }
+    }
+
+    private void describe(Sweet sweet) {
+        synchronized (rollup) {
+            rollup.describe(sweet.getId(), sweet.getName(), sweet.getCategory(), sweet.getPrice());
+        }
+    }
+}
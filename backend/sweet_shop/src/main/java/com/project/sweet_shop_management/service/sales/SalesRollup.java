@@ -0,0 +1,252 @@
+package com.project.sweet_shop_management.service.sales;
+
+import com.project.sweet_shop_management.model.Sale;
+import com.project.sweet_shop_management.model.SalesStats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Running sales totals, updated per sale so stats never have to read the ledger back.
+ *
+ * Layout:
+ *  - every sweet gets a dense slot (open-addressing sweet id → slot map); units, revenue and the
+ *    current name/category/price live in parallel arrays indexed by slot
+ *  - ranking → slots ordered by units sold, so top sellers is a walk of the first k entries
+ *  - categories → category → slot, with units/revenue arrays like the sweets
+ *  - minutes / hours → WindowedCounter rings for "last N minutes / hours"
+ *
+ * Cost: a sale is O(log sweets) (re-rank) plus O(log buckets) per window; stats are
+ * O(k + log sweets) for top sellers, O(categories) and O(log buckets) per window.
+ * Revenue is kept in cents so sums stay exact.
+ *
+ * Not thread-safe; SalesLedger guards it.
+ */
+class SalesRollup {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    // sweet id → slot, open addressing with linear probing
+    private long[] keys = new long[64];
+    private int[] slotOf = new int[64];
+
+    // Per slot
+    private int size;
+    private long[] sweetIds = new long[32];
+    private long[] units = new long[32];
+    private long[] revenue = new long[32];
+    private long[] priceCents = new long[32];
+    private String[] names = new String[32];
+    private String[] categories = new String[32];
+
+    // Slots that sold anything, best seller first (ties: more revenue, then lower id)
+    private final TreeSet<Integer> ranking = new TreeSet<>(Comparator
+            .comparingLong((Integer slot) -> -units[slot])
+            .thenComparingLong(slot -> -revenue[slot])
+            .thenComparingLong(slot -> sweetIds[slot]));
+
+    private final Map<String, Integer> categorySlots = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private long[] categoryUnits = new long[8];
+    private long[] categoryRevenue = new long[8];
+
+    private long totalUnits;
+    private long totalRevenue;
+
+    private final WindowedCounter minutes;
+    private final WindowedCounter hours;
+
+    SalesRollup(int minutesKept, int hoursKept) {
+        Arrays.fill(keys, EMPTY);
+        this.minutes = new WindowedCounter(MINUTE, minutesKept);
+        this.hours = new WindowedCounter(HOUR, hoursKept);
+    }
+
+    // -------------------- CATALOG DATA --------------------
+
+    boolean isDescribed(long sweetId) {
+        int slot = find(sweetId);
+        return slot >= 0 && priceCents[slot] >= 0;
+    }
+
+    /**
+     * Sets the name, category and price used for the sweet's next sales.
+     */
+    void describe(long sweetId, String name, String category, double price) {
+        int slot = slot(sweetId);
+        names[slot] = name;
+        categories[slot] = category;
+        priceCents[slot] = Math.round(price * 100);
+    }
+
+    // After a bulk import every sweet is looked up again before its next sale
+    void forgetDescriptions() {
+        Arrays.fill(priceCents, 0, size, -1);
+    }
+
+    // -------------------- UPDATES --------------------
+
+    /**
+     * Counts a sale at the sweet's current price and category.
+     *
+     * @return the ledger row to write, or null if the sweet was never described
+     */
+    Sale record(long sweetId, int quantity, long timeMillis) {
+        int slot = find(sweetId);
+        if (slot < 0 || priceCents[slot] < 0) {
+            return null;
+        }
+        long cents = priceCents[slot] * quantity;
+        addTotals(sweetId, categories[slot], quantity, cents);
+        addWindows(timeMillis, quantity, cents);
+        return new Sale(sweetId, categories[slot], quantity, priceCents[slot] / 100.0, Instant.ofEpochMilli(timeMillis));
+    }
+
+    void addTotals(long sweetId, String category, long unitCount, long revenueCents) {
+        int slot = slot(sweetId);
+        ranking.remove(slot);
+        units[slot] += unitCount;
+        revenue[slot] += revenueCents;
+        ranking.add(slot);
+
+        int categorySlot = categorySlot(category == null ? "" : category);
+        categoryUnits[categorySlot] += unitCount;
+        categoryRevenue[categorySlot] += revenueCents;
+
+        totalUnits += unitCount;
+        totalRevenue += revenueCents;
+    }
+
+    void addWindows(long timeMillis, long unitCount, long revenueCents) {
+        minutes.add(timeMillis, unitCount, revenueCents);
+        hours.add(timeMillis, unitCount, revenueCents);
+    }
+
+    // -------------------- QUERIES --------------------
+
+    long hoursKeptMillis() {
+        return hours.buckets() * hours.bucketMillis();
+    }
+
+    /**
+     * @param top         number of top sellers
+     * @param nowMillis   end of the windows
+     * @param lastMinutes window in minutes (capped at the minutes kept)
+     * @param lastHours   window in hours (capped at the hours kept)
+     */
+    SalesStats stats(int top, long nowMillis, int lastMinutes, int lastHours) {
+        List<SalesStats.SweetSales> topSellers = new ArrayList<>(Math.min(top, ranking.size()));
+        for (int slot : ranking) {
+            if (topSellers.size() == top) {
+                break;
+            }
+            topSellers.add(new SalesStats.SweetSales(sweetIds[slot], names[slot], units[slot], money(revenue[slot])));
+        }
+
+        List<SalesStats.CategorySales> byCategory = new ArrayList<>(categoryNames.size());
+        for (int i = 0; i < categoryNames.size(); i++) {
+            byCategory.add(new SalesStats.CategorySales(categoryNames.get(i), categoryUnits[i], money(categoryRevenue[i])));
+        }
+        byCategory.sort(Comparator.comparingDouble(SalesStats.CategorySales::revenue).reversed());
+
+        int m = Math.min(lastMinutes, minutes.buckets());
+        int h = Math.min(lastHours, hours.buckets());
+        long[] inMinutes = minutes.sum(nowMillis, m);
+        long[] inHours = hours.sum(nowMillis, h);
+        List<SalesStats.WindowSales> windows = List.of(
+                new SalesStats.WindowSales(m + "m", inMinutes[0], money(inMinutes[1])),
+                new SalesStats.WindowSales(h + "h", inHours[0], money(inHours[1])));
+
+        return new SalesStats(totalUnits, money(totalRevenue), topSellers, byCategory, windows);
+    }
+
+    // -------------------- HELPERS --------------------
+
+    private static double money(long cents) {
+        return cents / 100.0;
+    }
+
+    private int categorySlot(String category) {
+        Integer slot = categorySlots.get(category);
+        if (slot != null) {
+            return slot;
+        }
+        int fresh = categoryNames.size();
+        categoryNames.add(category);
+        categorySlots.put(category, fresh);
+        if (fresh == categoryUnits.length) {
+            categoryUnits = Arrays.copyOf(categoryUnits, fresh * 2);
+            categoryRevenue = Arrays.copyOf(categoryRevenue, fresh * 2);
+        }
+        return fresh;
+    }
+
+    // Slot of the sweet, or -1
+    private int find(long sweetId) {
+        int mask = keys.length - 1;
+        for (int i = mix(sweetId) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == sweetId) {
+                return slotOf[i];
+            }
+        }
+        return -1;
+    }
+
+    // Slot of the sweet, created (undescribed) if it has none yet
+    private int slot(long sweetId) {
+        int found = find(sweetId);
+        if (found >= 0) {
+            return found;
+        }
+        if (size == sweetIds.length) {
+            int capacity = size * 2;
+            sweetIds = Arrays.copyOf(sweetIds, capacity);
+            units = Arrays.copyOf(units, capacity);
+            revenue = Arrays.copyOf(revenue, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            names = Arrays.copyOf(names, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        int slot = size++;
+        sweetIds[slot] = sweetId;
+        priceCents[slot] = -1;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        } else {
+            insert(sweetId, slot);
+        }
+        return slot;
+    }
+
+    private void insert(long sweetId, int slot) {
+        int mask = keys.length - 1;
+        int i = mix(sweetId) & mask;
+        while (keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = sweetId;
+        slotOf[i] = slot;
+    }
+
+    private void rehash(int capacity) {
+        keys = new long[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        for (int slot = 0; slot < size; slot++) {
+            insert(sweetIds[slot], slot);
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,120 @@
+package com.project.sweet_shop_management.service.sales;
+
+/**
+ * Units and revenue per time bucket (e.g. per minute) for the most recent buckets, with sums over
+ * the last n buckets in O(log buckets) instead of adding up every bucket.
+ *
+ * How it works:
+ *  - Buckets form a ring indexed by (time / bucketMillis) % buckets.
+ *  - Each of the two values is kept in a Fenwick tree over the ring, so a range of consecutive
+ *    buckets is two prefix sums (three when the range wraps around the end of the ring).
+ *  - Moving into a new bucket clears the buckets it skipped, so a bucket is reused only after
+ *    its old contents were subtracted. Adds older than the ring are ignored.
+ *
+ * Not thread-safe; SalesRollup guards it.
+ */
+class WindowedCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    // Raw value per ring slot, needed to subtract a bucket when it is reused
+    private final long[] units;
+    private final long[] revenue;
+
+    // Fenwick trees over the ring slots (1-based)
+    private final long[] unitTree;
+    private final long[] revenueTree;
+
+    // Newest bucket number seen (time / bucketMillis); every older bucket in the ring is valid
+    private long head = Long.MIN_VALUE;
+
+    WindowedCounter(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        this.units = new long[buckets];
+        this.revenue = new long[buckets];
+        this.unitTree = new long[buckets + 1];
+        this.revenueTree = new long[buckets + 1];
+    }
+
+    long bucketMillis() {
+        return bucketMillis;
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    void add(long timeMillis, long unitCount, long revenueCents) {
+        long bucket = Math.floorDiv(timeMillis, bucketMillis);
+        advance(bucket);
+        if (bucket <= head - buckets) {
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, buckets);
+        units[slot] += unitCount;
+        revenue[slot] += revenueCents;
+        update(slot, unitCount, revenueCents);
+    }
+
+    /**
+     * Units and revenue (cents) of the last count buckets up to and including the one holding nowMillis.
+     */
+    long[] sum(long nowMillis, int count) {
+        advance(Math.floorDiv(nowMillis, bucketMillis));
+        int n = Math.min(count, buckets);
+        if (n <= 0 || head == Long.MIN_VALUE) {
+            return new long[]{0, 0};
+        }
+        int last = (int) Math.floorMod(head, buckets);
+        int first = last - n + 1;
+        if (first >= 0) {
+            return new long[]{
+                    prefix(unitTree, last) - prefix(unitTree, first - 1),
+                    prefix(revenueTree, last) - prefix(revenueTree, first - 1)};
+        }
+        // Wraps around: [first + buckets, end] plus [0, last]
+        int wrapped = first + buckets;
+        return new long[]{
+                prefix(unitTree, buckets - 1) - prefix(unitTree, wrapped - 1) + prefix(unitTree, last),
+                prefix(revenueTree, buckets - 1) - prefix(revenueTree, wrapped - 1) + prefix(revenueTree, last)};
+    }
+
+    // Moves head forward to bucket, clearing the slots of the buckets in between
+    private void advance(long bucket) {
+        if (head == Long.MIN_VALUE) {
+            head = bucket;
+            return;
+        }
+        if (bucket <= head) {
+            return;
+        }
+        long clearFrom = Math.max(head + 1, bucket - buckets + 1);
+        for (long b = clearFrom; b <= bucket; b++) {
+            int slot = (int) Math.floorMod(b, buckets);
+            if (units[slot] != 0 || revenue[slot] != 0) {
+                update(slot, -units[slot], -revenue[slot]);
+                units[slot] = 0;
+                revenue[slot] = 0;
+            }
+        }
+        head = bucket;
+    }
+
+    private void update(int slot, long unitDelta, long revenueDelta) {
+        for (int i = slot + 1; i <= buckets; i += i & -i) {
+            unitTree[i] += unitDelta;
+            revenueTree[i] += revenueDelta;
+        }
+    }
+
+    // Sum of slots 0..slot; 0 for slot -1
+    private static long prefix(long[] tree, int slot) {
+        long sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.sweet_shop_management.service.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Inverted index from text fragments to sweet ids, for one text field.
+ *
+ * Keys: every 3-character substring (trigram) of the lower-cased text.
+ *
+ * Every query matches anywhere in the text, like LIKE '%x%'. Queries of 3+ characters
+ * intersect the trigram postings and confirm the candidates with String.contains.
+ * Shorter queries have no trigram to look up, so they check every text (still in memory).
+ *
+ * Not thread-safe; SweetSearchIndex guards it with a read/write lock.
+ */
+final class NGramIndex {
+
+    private static final int GRAM = 3;
+
+    // id -> normalized text, used to confirm candidates and rank them
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    void put(Long id, String text) {
+        remove(id);
+        if (text == null) {
+            return;
+        }
+        String normalized = normalize(text);
+        texts.put(id, normalized);
+        for (String key : keys(normalized)) {
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        String old = texts.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String key : keys(old)) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return texts.size();
+    }
+
+    /**
+     * Returns up to limit matching ids, best first:
+     * exact match, then text starting with the query, then a word starting with it,
+     * then any other occurrence; ties go to the shorter text, then the lower id.
+     */
+    List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Worst hit on top, so it is the one dropped when the heap is full
+        PriorityQueue<Hit> best = new PriorityQueue<>(Collections.reverseOrder());
+        for (Long id : matching(query)) {
+            String text = texts.get(id);
+            best.add(new Hit(id, score(text, q), text.length()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        Collections.sort(hits);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    /**
+     * All ids whose text contains the query, in no particular order.
+     */
+    Set<Long> matching(String query) {
+        String q = normalize(query);
+        Set<Long> result = new HashSet<>();
+        if (q.isEmpty()) {
+            return result;
+        }
+        if (q.length() < GRAM) {
+            texts.forEach((id, text) -> {
+                if (text.contains(q)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+        for (Long id : candidates(q)) {
+            if (texts.get(id).contains(q)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    // Ids that contain every trigram of the query (may include false positives)
+    private Set<Long> candidates(String q) {
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<Long> ids = postings.get(q.substring(i, i + GRAM));
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        // Walk the shortest list and probe the others
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Long> smallest = lists.get(0);
+        if (lists.size() == 1) {
+            return smallest;
+        }
+        Set<Long> result = new HashSet<>();
+        for (Long id : smallest) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static int score(String text, String q) {
+        if (text.equals(q)) {
+            return 0;
+        }
+        if (text.startsWith(q)) {
+            return 1;
+        }
+        int at = text.indexOf(q);
+        while (at > 0) {
+            if (!Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return 2;
+            }
+            at = text.indexOf(q, at + 1);
+        }
+        return 3;
+    }
+
+    private static Set<String> keys(String text) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            keys.add(text.substring(i, i + GRAM));
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Hit(Long id, int score, int length) implements Comparable<Hit> {
+        @Override
+        public int compareTo(Hit other) {
+            if (score != other.score) {
+                return Integer.compare(score, other.score);
+            }
+            if (length != other.length) {
+                return Integer.compare(length, other.length);
+            }
+            return id.compareTo(other.id);
+        }
+    }
+}
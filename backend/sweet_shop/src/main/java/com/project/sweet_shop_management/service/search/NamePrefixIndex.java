@@ -0,0 +1,166 @@
+package com.project.sweet_shop_management.service.search;
+
+import com.project.sweet_shop_management.model.SweetSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted array of lower-cased name keys for typeahead (a flattened trie:
+ * all keys sharing a prefix sit next to each other).
+ *
+ * Every sweet has one key per word start, e.g. "Gulab Jamun" → "gulab jamun" and "jamun",
+ * so typing either word finds it. A lookup is one binary search to the first key with
+ * the prefix, then a scan until limit distinct sweets are found.
+ *
+ * put/remove shift the arrays (O(n)); bulk loads go through Builder and sort once.
+ * Not thread-safe; SweetSearchIndex guards it with a read/write lock.
+ */
+final class NamePrefixIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] keys;
+    private long[] ids;
+    private int size;
+
+    // id -> name as stored, for the response and to find an entry's keys on update/remove
+    private final Map<Long, String> names;
+
+    NamePrefixIndex() {
+        this(new String[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], 0, new HashMap<>());
+    }
+
+    private NamePrefixIndex(String[] keys, long[] ids, int size, Map<Long, String> names) {
+        this.keys = keys;
+        this.ids = ids;
+        this.size = size;
+        this.names = names;
+    }
+
+    String nameOf(long id) {
+        return names.get(id);
+    }
+
+    void put(long id, String name) {
+        remove(id);
+        if (name == null) {
+            return;
+        }
+        names.put(id, name);
+        for (String key : keys(name)) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size + (size >> 1));
+                ids = Arrays.copyOf(ids, keys.length);
+            }
+            int at = position(key, id);
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            keys[at] = key;
+            ids[at] = id;
+            size++;
+        }
+    }
+
+    void remove(long id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String key : keys(name)) {
+            int at = position(key, id);
+            if (at < size && ids[at] == id && keys[at].equals(key)) {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                keys[--size] = null;
+            }
+        }
+    }
+
+    /**
+     * Up to limit sweets with a name or name word starting with prefix, in key order.
+     */
+    List<SweetSuggestion> suggest(String prefix, int limit) {
+        String p = NGramIndex.normalize(prefix);
+        if (p.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> found = new LinkedHashSet<>();
+        for (int i = position(p, Long.MIN_VALUE); i < size && found.size() < limit && keys[i].startsWith(p); i++) {
+            found.add(ids[i]);
+        }
+        List<SweetSuggestion> suggestions = new ArrayList<>(found.size());
+        for (Long id : found) {
+            suggestions.add(new SweetSuggestion(id, names.get(id)));
+        }
+        return suggestions;
+    }
+
+    // Position of (key, id) in the sorted arrays, or where it would be inserted
+    private int position(String key, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = keys[mid].compareTo(key);
+            if (cmp < 0 || (cmp == 0 && ids[mid] < id)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static Set<String> keys(String name) {
+        String normalized = NGramIndex.normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Collects names and sorts all keys once.
+     */
+    static final class Builder {
+
+        private final Map<Long, String> names = new HashMap<>();
+        private final List<Entry> entries = new ArrayList<>();
+
+        Builder add(long id, String name) {
+            if (name != null) {
+                names.put(id, name);
+                for (String key : keys(name)) {
+                    entries.add(new Entry(key, id));
+                }
+            }
+            return this;
+        }
+
+        NamePrefixIndex build() {
+            entries.sort(Comparator.comparing(Entry::key).thenComparingLong(Entry::id));
+            int capacity = Math.max(entries.size(), INITIAL_CAPACITY);
+            String[] keys = new String[capacity];
+            long[] ids = new long[capacity];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).key();
+                ids[i] = entries.get(i).id();
+            }
+            return new NamePrefixIndex(keys, ids, entries.size(), names);
+        }
+
+        private record Entry(String key, long id) {
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.project.sweet_shop_management.service.search;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+/**
+ * Sorted (price, id) pairs for price range queries, kept in primitive arrays.
+ *
+ * Layout:
+ *  - prices/ids       → entries sorted by price, then id; range queries binary-search these
+ *  - byIdIds/byIdPrices → the same entries sorted by id, to find an entry's price on update/remove
+ *
+ * A range query is two binary searches plus one array copy, so it allocates nothing per match.
+ * put/remove shift the arrays (O(n)); bulk loads go through Builder and sort once.
+ *
+ * Not thread-safe; SweetSearchIndex guards it with a read/write lock.
+ */
+public final class PriceIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long[] NO_IDS = new long[0];
+
+    private double[] prices;
+    private long[] ids;
+    private long[] byIdIds;
+    private double[] byIdPrices;
+    private int size;
+
+    public PriceIndex() {
+        this(new double[INITIAL_CAPACITY], new long[INITIAL_CAPACITY],
+                new long[INITIAL_CAPACITY], new double[INITIAL_CAPACITY], 0);
+    }
+
+    private PriceIndex(double[] prices, long[] ids, long[] byIdIds, double[] byIdPrices, int size) {
+        this.prices = prices;
+        this.ids = ids;
+        this.byIdIds = byIdIds;
+        this.byIdPrices = byIdPrices;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void put(long id, double price) {
+        remove(id);
+        ensureCapacity(size + 1);
+
+        int at = insertionPoint(price, id);
+        System.arraycopy(prices, at, prices, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        prices[at] = price;
+        ids[at] = id;
+
+        int byIdAt = -Arrays.binarySearch(byIdIds, 0, size, id) - 1;
+        System.arraycopy(byIdIds, byIdAt, byIdIds, byIdAt + 1, size - byIdAt);
+        System.arraycopy(byIdPrices, byIdAt, byIdPrices, byIdAt + 1, size - byIdAt);
+        byIdIds[byIdAt] = id;
+        byIdPrices[byIdAt] = price;
+
+        size++;
+    }
+
+    public void remove(long id) {
+        int byIdAt = Arrays.binarySearch(byIdIds, 0, size, id);
+        if (byIdAt < 0) {
+            return;
+        }
+        int at = insertionPoint(byIdPrices[byIdAt], id);
+        System.arraycopy(prices, at + 1, prices, at, size - at - 1);
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        System.arraycopy(byIdIds, byIdAt + 1, byIdIds, byIdAt, size - byIdAt - 1);
+        System.arraycopy(byIdPrices, byIdAt + 1, byIdPrices, byIdAt, size - byIdAt - 1);
+        size--;
+    }
+
+    public OptionalDouble priceOf(long id) {
+        int byIdAt = Arrays.binarySearch(byIdIds, 0, size, id);
+        return byIdAt < 0 ? OptionalDouble.empty() : OptionalDouble.of(byIdPrices[byIdAt]);
+    }
+
+    /**
+     * Ids of all entries with minPrice <= price <= maxPrice, cheapest first (ties by id).
+     */
+    public long[] idsInRange(double minPrice, double maxPrice) {
+        int from = firstAtLeast(minPrice);
+        int to = firstAbove(maxPrice);
+        return from < to ? Arrays.copyOfRange(ids, from, to) : NO_IDS;
+    }
+
+    // Index of the first entry with price >= minPrice
+    private int firstAtLeast(double minPrice) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(prices[mid], minPrice) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Index of the first entry with price > maxPrice
+    private int firstAbove(double maxPrice) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(prices[mid], maxPrice) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Position of (price, id) in the price-sorted arrays, or where it would be inserted
+    private int insertionPoint(double price, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(prices[mid], ids[mid], price, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        prices = Arrays.copyOf(prices, grown);
+        ids = Arrays.copyOf(ids, grown);
+        byIdIds = Arrays.copyOf(byIdIds, grown);
+        byIdPrices = Arrays.copyOf(byIdPrices, grown);
+    }
+
+    private static int compare(double priceA, long idA, double priceB, long idB) {
+        int byPrice = Double.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Long.compare(idA, idB);
+    }
+
+    /**
+     * Collects entries in ascending id order (as read by a keyset scan) and sorts them once.
+     */
+    public static final class Builder {
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private double[] prices = new double[INITIAL_CAPACITY];
+        private int size;
+
+        public Builder add(long id, double price) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("Ids must be added in ascending order");
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1));
+                prices = Arrays.copyOf(prices, ids.length);
+            }
+            ids[size] = id;
+            prices[size] = price;
+            size++;
+            return this;
+        }
+
+        public PriceIndex build() {
+            int capacity = Math.max(size, INITIAL_CAPACITY);
+            long[] byIdIds = Arrays.copyOf(ids, capacity);
+            double[] byIdPrices = Arrays.copyOf(prices, capacity);
+            long[] sortedIds = Arrays.copyOf(ids, capacity);
+            double[] sortedPrices = Arrays.copyOf(prices, capacity);
+            sort(sortedPrices, sortedIds, 0, size);
+            return new PriceIndex(sortedPrices, sortedIds, byIdIds, byIdPrices, size);
+        }
+
+        // Quicksort of the parallel arrays on (price, id) over [lo, hi); no boxing
+        private static void sort(double[] prices, long[] ids, int lo, int hi) {
+            while (hi - lo > 16) {
+                int mid = (lo + hi) >>> 1;
+                double pivotPrice = prices[mid];
+                long pivotId = ids[mid];
+                int i = lo;
+                int j = hi - 1;
+                while (i <= j) {
+                    while (compare(prices[i], ids[i], pivotPrice, pivotId) < 0) {
+                        i++;
+                    }
+                    while (compare(prices[j], ids[j], pivotPrice, pivotId) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(prices, ids, i++, j--);
+                    }
+                }
+                // Recurse into the smaller half, loop on the larger one
+                if (j + 1 - lo < hi - i) {
+                    sort(prices, ids, lo, j + 1);
+                    lo = i;
+                } else {
+                    sort(prices, ids, i, hi);
+                    hi = j + 1;
+                }
+            }
+            for (int i = lo + 1; i < hi; i++) {
+                for (int j = i; j > lo && compare(prices[j - 1], ids[j - 1], prices[j], ids[j]) > 0; j--) {
+                    swap(prices, ids, j - 1, j);
+                }
+            }
+        }
+
+        private static void swap(double[] prices, long[] ids, int a, int b) {
+            double price = prices[a];
+            prices[a] = prices[b];
+            prices[b] = price;
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+}
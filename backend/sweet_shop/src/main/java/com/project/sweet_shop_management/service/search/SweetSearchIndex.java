@@ -0,0 +1,334 @@
+package com.project.sweet_shop_management.service.search;
+
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SweetSearchIndex answers name, category and price range searches and name suggestions
+ * from memory instead of LIKE '%x%' scans and range queries.
+ *
+ * How it works:
+ *  - On startup the whole catalog is loaded into two NGramIndex instances (name, category),
+ *    a PriceIndex and a NamePrefixIndex.
+ *  - SweetCatalogEvent updates them as sweets are added, updated or deleted.
+ *  - A periodic rebuild picks up changes made by other application instances.
+ *  - Name/category searches return the best max-results matching sweet ids, ranked by relevance.
+ *    Like the LIKE '%x%' queries they replace, they match anywhere in the text, whatever the query length.
+ *  - Price range searches return all matching ids in price order (price-only /api/sweets/search).
+ *  - search(criteria) combines name, category and price bounds and returns all matching ids in
+ *    id order, for paged and multi-filter /api/sweets/search requests.
+ *  - Suggestions return up to the requested number of (id, name) pairs by name prefix.
+ *
+ * Until the first load has finished (or when disabled) isReady() is false and
+ * SweetServiceImpl keeps using the repository queries.
+ *
+ * Disable with: sweetshop.search.index.enabled=false
+ */
+@Component
+public class SweetSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SweetSearchIndex.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final SweetRepository sweetRepository;
+    private final boolean enabled;
+    private final int maxResults;
+
+    // Searches share the read lock; writes and swaps take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Indexes current = new Indexes();
+    private volatile boolean ready;
+
+    // While a rebuild runs, events are applied to both indexes; ids changed by events
+    // are not overwritten by the (possibly older) rows the rebuild reads afterwards
+    private Indexes building;
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+
+    // Set when a rebuild is asked for while one runs: that one then makes one more pass,
+    // so a reload announced mid-build is not missed (guarded by the lock)
+    private boolean rebuildAgain;
+
+    public SweetSearchIndex(SweetRepository sweetRepository,
+                            @Value("${sweetshop.search.index.enabled:true}") boolean enabled,
+                            @Value("${sweetshop.search.max-results:50}") int maxResults) {
+        this.sweetRepository = sweetRepository;
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Most hits a ranked name/category search returns
+    public int maxResults() {
+        return maxResults;
+    }
+
+    public List<Long> searchByName(String name) {
+        lock.readLock().lock();
+        try {
+            return current.names.search(name, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> searchByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            return current.categories.search(category, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] searchByPriceRange(double minPrice, double maxPrice) {
+        lock.readLock().lock();
+        try {
+            return current.prices.idsInRange(minPrice, maxPrice);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of all sweets matching every given criterion, in ascending id order.
+     * Text criteria are looked up first and the price bounds checked per hit;
+     * price-only criteria are one range query.
+     */
+    public long[] search(SweetSearchCriteria criteria) {
+        double min = criteria.getMinPrice() != null ? criteria.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double max = criteria.getMaxPrice() != null ? criteria.getMaxPrice() : Double.POSITIVE_INFINITY;
+        lock.readLock().lock();
+        try {
+            Set<Long> hits = null;
+            if (criteria.getName() != null) {
+                hits = current.names.matching(criteria.getName());
+            }
+            if (criteria.getCategory() != null) {
+                Set<Long> inCategory = current.categories.matching(criteria.getCategory());
+                if (hits == null) {
+                    hits = inCategory;
+                } else {
+                    hits.retainAll(inCategory);
+                }
+            }
+            long[] ids;
+            if (hits == null) {
+                ids = current.prices.idsInRange(min, max);
+            } else {
+                ids = new long[hits.size()];
+                int n = 0;
+                for (Long id : hits) {
+                    OptionalDouble price = current.prices.priceOf(id);
+                    if (price.isPresent() && price.getAsDouble() >= min && price.getAsDouble() <= max) {
+                        ids[n++] = id;
+                    }
+                }
+                ids = Arrays.copyOf(ids, n);
+            }
+            Arrays.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SweetSuggestion> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return current.suggestions.suggest(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onCatalogChange(SweetCatalogEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.type() == SweetCatalogEvent.Type.RELOADED) {
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(current, event);
+            if (building != null) {
+                apply(building, event);
+                changedDuringBuild.add(event.sweetId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Reads the catalog in id order (keyset batches, no long transaction) into a fresh
+     * index and swaps it in. Searches keep using the old index meanwhile.
+     * If a rebuild is already running, it is asked to run once more when done.
+     */
+    @Scheduled(initialDelayString = "${sweetshop.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${sweetshop.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        while (build()) {
+            log.info("Catalog changed during the search index rebuild, rebuilding again");
+        }
+    }
+
+    // One rebuild pass; true if another rebuild was asked for while it ran
+    private boolean build() {
+        Indexes fresh = new Indexes();
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                rebuildAgain = true;
+                return false;
+            }
+            building = fresh;
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean again;
+        try {
+            // Prices and name keys are collected and sorted once at the end instead of inserted one by one
+            PriceIndex.Builder prices = new PriceIndex.Builder();
+            NamePrefixIndex.Builder suggestions = new NamePrefixIndex.Builder();
+            long afterId = 0;
+            List<Sweet> batch;
+            do {
+                batch = sweetRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(LOAD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (Sweet sweet : batch) {
+                        if (!changedDuringBuild.contains(sweet.getId())) {
+                            fresh.putText(sweet);
+                            prices.add(sweet.getId(), sweet.getPrice());
+                            suggestions.add(sweet.getId(), sweet.getName());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                // Ids changed by events during the build: their latest state is in the current index
+                fresh.prices = prices.build();
+                fresh.suggestions = suggestions.build();
+                // (absent there if deleted, so drop whatever row the build read for them)
+                for (Long id : changedDuringBuild) {
+                    OptionalDouble price = current.prices.priceOf(id);
+                    if (price.isPresent()) {
+                        fresh.prices.put(id, price.getAsDouble());
+                    } else {
+                        fresh.prices.remove(id);
+                    }
+                    String name = current.suggestions.nameOf(id);
+                    if (name != null) {
+                        fresh.suggestions.put(id, name);
+                    } else {
+                        fresh.suggestions.remove(id);
+                    }
+                }
+                current = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Search index loaded with {} sweets", fresh.names.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the search index, keeping the previous one", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = null;
+                changedDuringBuild.clear();
+                again = rebuildAgain;
+                rebuildAgain = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return again;
+    }
+
+    private static void apply(Indexes indexes, SweetCatalogEvent event) {
+        if (event.type() == SweetCatalogEvent.Type.DELETED) {
+            indexes.remove(event.sweetId());
+        } else {
+            indexes.put(event.sweet());
+        }
+    }
+
+    private static final class Indexes {
+
+        private final NGramIndex names = new NGramIndex();
+        private final NGramIndex categories = new NGramIndex();
+        private PriceIndex prices = new PriceIndex();
+        private NamePrefixIndex suggestions = new NamePrefixIndex();
+
+        private void put(Sweet sweet) {
+            putText(sweet);
+            prices.put(sweet.getId(), sweet.getPrice());
+            suggestions.put(sweet.getId(), sweet.getName());
+        }
+
+        private void putText(Sweet sweet) {
+            names.put(sweet.getId(), sweet.getName());
+            categories.put(sweet.getId(), sweet.getCategory());
+        }
+
+        private void remove(Long id) {
+            names.remove(id);
+            categories.remove(id);
+            prices.remove(id);
+            suggestions.remove(id);
+        }
+    }
+}
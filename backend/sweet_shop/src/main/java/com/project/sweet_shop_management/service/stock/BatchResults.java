@@ -0,0 +1,38 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the stock engines for all-or-nothing batch purchases.
+ */
+final class BatchResults {
+
+    private BatchResults() {
+    }
+
+    static boolean allPurchased(List<PurchaseLineResult> results) {
+        for (PurchaseLineResult result : results) {
+            if (!result.isPurchased()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the lines that did go through as ROLLED_BACK, for a batch that was not committed.
+     */
+    static List<PurchaseLineResult> rolledBack(List<PurchaseLineResult> results) {
+        List<PurchaseLineResult> settled = new ArrayList<>(results.size());
+        for (PurchaseLineResult result : results) {
+            settled.add(result.isPurchased()
+                    ? new PurchaseLineResult(result.getSweetId(), result.getQuantity(),
+                            PurchaseLineResult.Status.ROLLED_BACK, null)
+                    : result);
+        }
+        return settled;
+    }
+}
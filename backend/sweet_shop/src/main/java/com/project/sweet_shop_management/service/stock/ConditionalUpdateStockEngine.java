@@ -0,0 +1,107 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ConditionalUpdateStockEngine takes stock with a single
+ * "UPDATE sweets SET quantity = quantity - ? WHERE id = ? AND quantity >= ?".
+ *
+ * Why:
+ *  - The database decides atomically, so concurrent purchases can never oversell
+ *    or overwrite each other (no read-modify-write race).
+ *  - tryPurchase needs one round-trip; the refreshed entity is only loaded when asked for.
+ *
+ * Enable with: sweetshop.stock.engine=conditional
+ */
+@Component
+@ConditionalOnProperty(name = "sweetshop.stock.engine", havingValue = "conditional")
+public class ConditionalUpdateStockEngine implements StockEngine {
+
+    private final SweetRepository sweetRepository;
+
+    public ConditionalUpdateStockEngine(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @Override
+    public Sweet purchase(Long id, int qty) {
+        if (!tryPurchase(id, qty)) {
+            throw new RuntimeException("Not enough stock available");
+        }
+        return reload(id);
+    }
+
+    @Override
+    public boolean tryPurchase(Long id, int qty) {
+        if (sweetRepository.decrementStock(id, qty) == 1) {
+            return true;
+        }
+        // No row changed: only now find out whether the sweet exists at all
+        if (!sweetRepository.existsById(id)) {
+            throw new RuntimeException("Sweet not found");
+        }
+        return false;
+    }
+
+    /**
+     * Runs one conditional UPDATE per line (in id order) inside a single transaction.
+     * If any line fails, the transaction is rolled back and no stock is taken.
+     */
+    @Override
+    @Transactional
+    public List<PurchaseLineResult> purchaseAll(List<PurchaseLine> lines) {
+        List<PurchaseLineResult> results = new ArrayList<>(lines.size());
+        boolean allTaken = true;
+        for (PurchaseLine line : lines) {
+            if (sweetRepository.decrementStock(line.getSweetId(), line.getQuantity()) == 1) {
+                // Remaining quantity is filled in below once the whole batch went through
+                results.add(PurchaseLineResult.purchased(line, 0));
+            } else {
+                allTaken = false;
+                results.add(PurchaseLineResult.failed(line, sweetRepository.existsById(line.getSweetId())
+                        ? PurchaseLineResult.Status.INSUFFICIENT_STOCK
+                        : PurchaseLineResult.Status.NOT_FOUND));
+            }
+        }
+
+        if (!allTaken) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return BatchResults.rolledBack(results);
+        }
+
+        List<Long> ids = lines.stream().map(PurchaseLine::getSweetId).toList();
+        Map<Long, Sweet> current = sweetRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+        results.clear();
+        for (PurchaseLine line : lines) {
+            results.add(PurchaseLineResult.purchased(line, current.get(line.getSweetId()).getQuantity()));
+        }
+        return results;
+    }
+
+    @Override
+    public Sweet restock(Long id, int qty) {
+        if (sweetRepository.incrementStock(id, qty) == 0) {
+            throw new RuntimeException("Sweet not found");
+        }
+        return reload(id);
+    }
+
+    private Sweet reload(Long id) {
+        return sweetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+    }
+}
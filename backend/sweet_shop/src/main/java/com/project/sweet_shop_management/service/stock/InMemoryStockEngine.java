@@ -0,0 +1,241 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InMemoryStockEngine keeps one atomic counter per sweet id and decides purchases in memory.
+ *
+ * How it works:
+ *  - The first purchase/restock of a sweet loads its quantity from the database into a counter.
+ *  - Purchases decrement the counter with a compare-and-set loop, so stock can never go below zero.
+ *  - Changed ids are marked dirty and written back to the "sweets" table by a scheduled flush.
+ *
+ * Note:
+ *  - The counters are the source of truth for quantities while this engine is active,
+ *    so it must only be enabled when a single application instance serves purchases.
+ *  - Reads that go to the database (getAllSweets, search) may lag by one flush interval.
+ *  - A full update (PUT) of a sweet that already has a counter keeps the counter; its
+ *    quantity only seeds the counters of new sweets. Use restock to add stock.
+ *
+ * Enable with: sweetshop.stock.engine=memory
+ */
+@Component
+@ConditionalOnProperty(name = "sweetshop.stock.engine", havingValue = "memory")
+public class InMemoryStockEngine implements StockEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStockEngine.class);
+
+    private final SweetRepository sweetRepository;
+
+    // One counter per sweet id, so purchases of different sweets never contend
+    private final ConcurrentHashMap<Long, StockSlot> slots = new ConcurrentHashMap<>();
+
+    // Ids whose counter changed since the last flush
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public InMemoryStockEngine(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @Override
+    public Sweet purchase(Long id, int qty) {
+        StockSlot slot = slot(id);
+        int remaining = slot.tryTake(qty);
+        if (remaining < 0) {
+            throw new RuntimeException("Not enough stock available");
+        }
+        dirty.add(id);
+        return slot.view(remaining);
+    }
+
+    @Override
+    public boolean tryPurchase(Long id, int qty) {
+        if (slot(id).tryTake(qty) < 0) {
+            return false;
+        }
+        dirty.add(id);
+        return true;
+    }
+
+    /**
+     * Takes every line from its counter in id order; if one fails, the lines already taken
+     * are added back, so the batch is all-or-nothing without holding any lock.
+     */
+    @Override
+    public List<PurchaseLineResult> purchaseAll(List<PurchaseLine> lines) {
+        List<PurchaseLineResult> results = new ArrayList<>(lines.size());
+        boolean allTaken = true;
+        for (PurchaseLine line : lines) {
+            StockSlot slot = findSlot(line.getSweetId());
+            if (slot == null) {
+                allTaken = false;
+                results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.NOT_FOUND));
+                continue;
+            }
+            int remaining = slot.tryTake(line.getQuantity());
+            if (remaining < 0) {
+                allTaken = false;
+                results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.INSUFFICIENT_STOCK));
+            } else {
+                results.add(PurchaseLineResult.purchased(line, remaining));
+            }
+        }
+
+        if (allTaken) {
+            lines.forEach(line -> dirty.add(line.getSweetId()));
+            return results;
+        }
+        for (PurchaseLineResult result : results) {
+            if (result.isPurchased()) {
+                slot(result.getSweetId()).quantity.addAndGet(result.getQuantity());
+            }
+        }
+        return BatchResults.rolledBack(results);
+    }
+
+    @Override
+    public Sweet restock(Long id, int qty) {
+        StockSlot slot = slot(id);
+        int updated = slot.quantity.addAndGet(qty);
+        dirty.add(id);
+        return slot.view(updated);
+    }
+
+    @Override
+    public boolean holdsQuantities() {
+        return true;
+    }
+
+    /**
+     * Takes the new name, category and price but keeps an existing counter: replacing it with
+     * the quantity the save read would drop purchases made since. A new sweet gets a counter.
+     */
+    @Override
+    public void onSweetSaved(Sweet sweet) {
+        slots.compute(sweet.getId(), (id, slot) -> slot == null ? new StockSlot(sweet) : slot.withCatalogOf(sweet));
+        // Write the counter back over the quantity the save put in the table
+        dirty.add(sweet.getId());
+    }
+
+    @Override
+    public void onSweetDeleted(Long id) {
+        slots.remove(id);
+        dirty.remove(id);
+    }
+
+    /**
+     * Writes the quantities of all dirty sweets back to the database.
+     * Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${sweetshop.stock.flush-interval-ms:500}")
+    @PreDestroy
+    public void flush() {
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            // Clear the mark before reading, so a concurrent change marks the id again
+            it.remove();
+
+            StockSlot slot = slots.get(id);
+            if (slot == null) {
+                continue;
+            }
+            try {
+                sweetRepository.updateQuantity(id, slot.quantity.get());
+            } catch (RuntimeException e) {
+                dirty.add(id);
+                log.warn("Could not persist stock for sweet {}, will retry", id, e);
+            }
+        }
+    }
+
+    private StockSlot slot(Long id) {
+        StockSlot slot = findSlot(id);
+        if (slot == null) {
+            throw new RuntimeException("Sweet not found");
+        }
+        return slot;
+    }
+
+    // Returns the counter for the sweet, loading it from the database on first use; null if the sweet does not exist
+    private StockSlot findSlot(Long id) {
+        StockSlot slot = slots.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        Sweet sweet = sweetRepository.findById(id).orElse(null);
+        if (sweet == null) {
+            return null;
+        }
+        // If another thread loaded the same sweet first, keep its counter
+        StockSlot loaded = slots.putIfAbsent(id, new StockSlot(sweet));
+        return loaded != null ? loaded : slots.get(id);
+    }
+
+    /**
+     * Counter for a single sweet plus the catalog data needed to build responses.
+     */
+    private static final class StockSlot {
+
+        private final Long id;
+        private final String name;
+        private final String category;
+        private final double price;
+        private final AtomicInteger quantity;
+
+        private StockSlot(Sweet sweet) {
+            this(sweet, new AtomicInteger(sweet.getQuantity()));
+        }
+
+        private StockSlot(Sweet sweet, AtomicInteger quantity) {
+            this.id = sweet.getId();
+            this.name = sweet.getName();
+            this.category = sweet.getCategory();
+            this.price = sweet.getPrice();
+            this.quantity = quantity;
+        }
+
+        // Same counter (callers holding this slot keep taking from it), new catalog data
+        private StockSlot withCatalogOf(Sweet sweet) {
+            return new StockSlot(sweet, quantity);
+        }
+
+        /**
+         * Takes qty units if available.
+         *
+         * @return remaining quantity, or -1 if there was not enough stock
+         */
+        private int tryTake(int qty) {
+            while (true) {
+                int current = quantity.get();
+                if (current < qty) {
+                    return -1;
+                }
+                if (quantity.compareAndSet(current, current - qty)) {
+                    return current - qty;
+                }
+            }
+        }
+
+        private Sweet view(int currentQuantity) {
+            Sweet sweet = new Sweet(name, category, price, currentQuantity);
+            sweet.setId(id);
+            return sweet;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Default stock engine: loads the sweet, checks the quantity and saves the whole row back.
+ */
+@Component
+@ConditionalOnProperty(name = "sweetshop.stock.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaStockEngine implements StockEngine {
+
+    private final SweetRepository sweetRepository;
+
+    public JpaStockEngine(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @Override
+    public Sweet purchase(Long id, int qty) {
+        Sweet sweet = sweetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+
+        if (sweet.getQuantity() < qty) {
+            throw new RuntimeException("Not enough stock available");
+        }
+        sweet.setQuantity(sweet.getQuantity() - qty);
+        return sweetRepository.save(sweet);
+    }
+
+    @Override
+    public boolean tryPurchase(Long id, int qty) {
+        Sweet sweet = sweetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+
+        if (sweet.getQuantity() < qty) {
+            return false;
+        }
+        sweet.setQuantity(sweet.getQuantity() - qty);
+        sweetRepository.save(sweet);
+        return true;
+    }
+
+    /**
+     * Locks all rows of the batch (in id order) with SELECT ... FOR UPDATE, checks every line,
+     * and only then decrements. Nothing is written if any line fails.
+     */
+    @Override
+    @Transactional
+    public List<PurchaseLineResult> purchaseAll(List<PurchaseLine> lines) {
+        List<Long> ids = lines.stream().map(PurchaseLine::getSweetId).toList();
+        Map<Long, Sweet> locked = sweetRepository.findAllByIdInOrderByIdAsc(ids).stream()
+                .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+
+        List<PurchaseLineResult> results = new ArrayList<>(lines.size());
+        for (PurchaseLine line : lines) {
+            Sweet sweet = locked.get(line.getSweetId());
+            if (sweet == null) {
+                results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.NOT_FOUND));
+            } else if (sweet.getQuantity() < line.getQuantity()) {
+                results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.INSUFFICIENT_STOCK));
+            } else {
+                results.add(PurchaseLineResult.purchased(line, sweet.getQuantity() - line.getQuantity()));
+            }
+        }
+        if (!BatchResults.allPurchased(results)) {
+            return BatchResults.rolledBack(results);
+        }
+
+        // Managed entities: the new quantities are written when the transaction commits
+        for (PurchaseLine line : lines) {
+            Sweet sweet = locked.get(line.getSweetId());
+            sweet.setQuantity(sweet.getQuantity() - line.getQuantity());
+        }
+        return results;
+    }
+
+    @Override
+    public Sweet restock(Long id, int qty) {
+        Sweet sweet = sweetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+        sweet.setQuantity(sweet.getQuantity() + qty);
+        return sweetRepository.save(sweet);
+    }
+}
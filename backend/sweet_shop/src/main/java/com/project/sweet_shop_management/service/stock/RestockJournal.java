@@ -0,0 +1,128 @@
+package com.project.sweet_shop_management.service.stock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of restock deltas, split into numbered segment files
+ * (restock-0000000000000000001.log, ...). One line per delta: "sweetId quantity".
+ *
+ * Only the newest segment is written to; rotate() seals it and starts the next one.
+ * A sealed segment is deleted once its deltas are in the database.
+ *
+ * Appends are safe from several threads (FileChannel serializes writes). With fsync
+ * enabled every append is forced to disk, otherwise deltas survive a process crash
+ * but not a power failure.
+ */
+final class RestockJournal implements AutoCloseable {
+
+    private static final String PREFIX = "restock-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private long activeSegment;
+    private FileChannel active;
+
+    RestockJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Segment numbers of the files on disk, oldest first.
+     */
+    List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    /**
+     * Reads a segment and sums the deltas per sweet id. A torn last line (no newline) is ignored.
+     */
+    Map<Long, Integer> read(long segment) throws IOException {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        String content = Files.readString(file(segment), StandardCharsets.US_ASCII);
+        int end = content.lastIndexOf('\n');
+        if (end < 0) {
+            return deltas;
+        }
+        try (BufferedReader lines = new BufferedReader(new StringReader(content.substring(0, end)))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                int space = line.indexOf(' ');
+                deltas.merge(Long.parseLong(line.substring(0, space)), Integer.parseInt(line.substring(space + 1)), Integer::sum);
+            }
+        }
+        return deltas;
+    }
+
+    void open(long segment) throws IOException {
+        active = FileChannel.open(file(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSegment = segment;
+    }
+
+    long activeSegment() {
+        return activeSegment;
+    }
+
+    void append(long sweetId, int quantity) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((sweetId + " " + quantity + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (line.hasRemaining()) {
+            active.write(line);
+        }
+        if (fsync) {
+            active.force(false);
+        }
+    }
+
+    /**
+     * Seals the active segment and opens the next one. Callers must make sure no append runs concurrently.
+     *
+     * @return number of the sealed segment
+     */
+    long rotate() throws IOException {
+        long sealed = activeSegment;
+        active.force(false);
+        active.close();
+        open(sealed + 1);
+        return sealed;
+    }
+
+    void delete(long segment) throws IOException {
+        Files.deleteIfExists(file(segment));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (active != null) {
+            active.force(false);
+            active.close();
+        }
+    }
+
+    private Path file(long segment) {
+        return directory.resolve(String.format("%s%019d%s", PREFIX, segment, SUFFIX));
+    }
+}
@@ -0,0 +1,251 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.RestockFlush;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.repository.RestockFlushRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * RestockWriteBehind queues restock deltas and applies them to the database later, in batches.
+ *
+ * How it works:
+ *  - accept() appends the delta to a local journal segment and adds it to an in-memory map,
+ *    so several deltas for the same sweet become one update. The caller returns right away.
+ *  - flush() runs on a fixed delay, or early when flush-threshold sweets are pending. It seals
+ *    the journal segment and applies its map in one transaction: a JDBC batch of
+ *    "quantity = quantity + ?" updates plus a RestockFlush marker for the segment.
+ *  - The segment file is deleted after the commit. On startup, segment files still on disk are
+ *    applied unless their marker exists (crash after commit, before delete).
+ *
+ * If applying fails the sealed segment is kept and retried on the next flush, oldest first.
+ * Once its transaction has committed a segment is never applied again: if only the file delete
+ * fails, just the delete is retried, and the markers of such segments are kept until it succeeds.
+ *
+ * Note:
+ *  - Quantities read from the database lag by up to one flush interval.
+ *  - With sweetshop.stock.engine=memory the deltas go through StockEngine.restock,
+ *    because the engine's counters, not the table, hold the quantities. Counters cannot be
+ *    rolled back, so they are added outside the marker transaction, once per segment.
+ */
+@Component
+public class RestockWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(RestockWriteBehind.class);
+
+    private static final String INCREMENT_SQL = "update sweets set quantity = quantity + ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestockFlushRepository flushRepository;
+    private final StockEngine stockEngine;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher events;
+    private final RestockJournal journal;
+    private final int flushThreshold;
+
+    // accept() shares the read lock; sealing a segment takes the write lock,
+    // so a delta always lands in the segment whose map it was added to
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    // Sealed segments not yet in the database, oldest first (only touched by flush, which is synchronized)
+    private final Deque<SealedSegment> sealed = new ArrayDeque<>();
+
+    // Applied segments whose file could not be deleted yet (only touched by flush)
+    private final TreeSet<Long> undeleted = new TreeSet<>();
+
+    // Newest segment whose deltas are in the memory engine's counters (only touched by flush)
+    private long engineAppliedThrough;
+
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    public RestockWriteBehind(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              RestockFlushRepository flushRepository,
+                              StockEngine stockEngine,
+                              TaskScheduler taskScheduler,
+                              ApplicationEventPublisher events,
+                              @Value("${sweetshop.restock.journal-dir:restock-journal}") Path journalDir,
+                              @Value("${sweetshop.restock.fsync:false}") boolean fsync,
+                              @Value("${sweetshop.restock.flush-threshold:1000}") int flushThreshold) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushRepository = flushRepository;
+        this.stockEngine = stockEngine;
+        this.taskScheduler = taskScheduler;
+        this.events = events;
+        this.journal = new RestockJournal(journalDir, fsync);
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Picks up segments left by the previous run and opens a new segment after them, and after
+     * the last applied one: reusing a number that has a marker would skip that segment on replay.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long next = flushRepository.findLastSegment().map(last -> last + 1).orElse(1L);
+        for (long segment : journal.segments()) {
+            if (flushRepository.existsById(segment)) {
+                journal.delete(segment);
+            } else {
+                sealed.add(new SealedSegment(segment, journal.read(segment)));
+            }
+            next = Math.max(next, segment + 1);
+        }
+        journal.open(next);
+        if (!sealed.isEmpty()) {
+            log.info("Replaying {} restock journal segment(s) from the previous run", sealed.size());
+            flush();
+        }
+    }
+
+    /**
+     * Queues a restock delta. It is durable in the journal when this returns.
+     * Callers validate it (non-null id, positive quantity) before calling.
+     */
+    public void accept(Long sweetId, int quantity) {
+        int pendingSweets;
+        lock.readLock().lock();
+        try {
+            journal.append(sweetId, quantity);
+            pending.merge(sweetId, quantity, Integer::sum);
+            pendingSweets = pending.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the restock journal", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (pendingSweets >= flushThreshold && earlyFlushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    // Number of sweets with queued deltas
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${sweetshop.restock.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        earlyFlushScheduled.set(false);
+        try {
+            seal();
+        } catch (IOException e) {
+            log.warn("Could not rotate the restock journal, will retry", e);
+        }
+
+        List.copyOf(undeleted).forEach(this::delete);
+
+        while (!sealed.isEmpty()) {
+            SealedSegment segment = sealed.peek();
+            try {
+                apply(segment);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply restock journal segment {}, will retry", segment.number(), e);
+                return;
+            }
+            // Committed: from here on only the file delete may be retried
+            sealed.poll();
+            delete(segment.number());
+            segment.deltas().keySet().forEach(id -> events.publishEvent(StockChange.changed(id)));
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    private void seal() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long number = journal.rotate();
+            sealed.add(new SealedSegment(number, new TreeMap<>(pending)));
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(long segment) {
+        try {
+            journal.delete(segment);
+            undeleted.remove(segment);
+        } catch (IOException e) {
+            undeleted.add(segment);
+            log.warn("Could not delete applied restock journal segment {}, will retry", segment, e);
+        }
+    }
+
+    // Applies one segment (ids in ascending order, so concurrent writers lock rows in the same order)
+    private void apply(SealedSegment segment) {
+        if (stockEngine.holdsQuantities() && segment.number() > engineAppliedThrough) {
+            List<Long> unknown = new ArrayList<>();
+            segment.deltas().forEach((id, quantity) -> {
+                try {
+                    stockEngine.restock(id, quantity);
+                } catch (RuntimeException e) {
+                    unknown.add(id);
+                }
+            });
+            // A failed marker commit below must not add these again
+            engineAppliedThrough = segment.number();
+            if (!unknown.isEmpty()) {
+                log.warn("Dropped restock deltas for unknown sweets {}", unknown);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!stockEngine.holdsQuantities()) {
+                List<Long> unknown = new ArrayList<>();
+                List<Object[]> rows = new ArrayList<>(segment.deltas().size());
+                segment.deltas().forEach((id, quantity) -> rows.add(new Object[]{quantity, id}));
+                int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        unknown.add((Long) rows.get(i)[1]);
+                    }
+                }
+                if (!unknown.isEmpty()) {
+                    log.warn("Dropped restock deltas for unknown sweets {}", unknown);
+                }
+            }
+            // Keep the markers of segments whose file is still on disk, or a restart would replay them
+            flushRepository.deleteOlderThan(undeleted.isEmpty() ? segment.number() : undeleted.first());
+            flushRepository.save(new RestockFlush(segment.number(), Instant.now()));
+        });
+    }
+
+    private record SealedSegment(long number, Map<Long, Integer> deltas) {
+    }
+}
@@ -0,0 +1,374 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetStockShard;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.repository.SweetStockShardRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ShardedStockEngine spreads the stock of hot sweets over several rows, so purchases of one
+ * bestseller do not all queue on the same row lock. Sweets that are not sharded go to the
+ * configured engine (jpa or conditional) unchanged.
+ *
+ * How it works:
+ *  - setShardCount(id, n) moves the sweet's quantity into n rows of "sweet_stock_shards"
+ *    (split evenly) and sets the quantity in "sweets" to 0.
+ *  - A purchase takes from a random shard with one conditional UPDATE, then tries the other
+ *    shards and the sweet's own row. Only if no single row has enough does it lock the sweet
+ *    and all its shards and take the quantity from several of them.
+ *  - A sweet's quantity is its row plus the sum of its shards; fillQuantities() adds the shards
+ *    to sweets read from the database.
+ *  - Restocks are split evenly over the shards. Write-behind restocks still update the sweet's
+ *    row, which keeps counting towards the total. A bulk import sets the row's quantity outright,
+ *    so the shards of imported sweets are dropped.
+ *
+ * Locking: whatever holds more than one lock takes the sweet row first, then its shards in shard
+ * order (gather, reshard, carts). The single-row attempts of a purchase each commit on their own,
+ * so they never wait for one lock while holding another.
+ *
+ * Note:
+ *  - Which sweets are sharded is read from sweet_stock_shards on every call (one indexed lookup),
+ *    so all instances see a change right away.
+ *  - Cannot be combined with sweetshop.stock.engine=memory, which already keeps stock off the table.
+ *
+ * Enable with: sweetshop.stock.sharding.enabled=true, then POST /api/sweets/{id}/shards?count=n
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "sweetshop.stock.sharding.enabled", havingValue = "true")
+public class ShardedStockEngine implements StockEngine {
+
+    public static final int MAX_SHARDS = 64;
+
+    // Above this many sweets, fillQuantities() reads all shard totals instead of an IN list
+    private static final int MAX_SUMMARY_IDS = 500;
+
+    // The engine selected by sweetshop.stock.engine, used for sweets without shards
+    private final StockEngine delegate;
+
+    private final SweetRepository sweetRepository;
+    private final SweetStockShardRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Spring leaves this bean out of the list, so it holds exactly the configured engine
+    public ShardedStockEngine(List<StockEngine> engines,
+                              SweetRepository sweetRepository,
+                              SweetStockShardRepository shardRepository,
+                              TransactionTemplate transactionTemplate) {
+        if (engines.size() != 1) {
+            throw new IllegalStateException("Expected one stock engine to shard, found " + engines.size());
+        }
+        this.delegate = engines.get(0);
+        if (delegate.holdsQuantities()) {
+            throw new IllegalStateException("Stock sharding cannot be combined with sweetshop.stock.engine=memory");
+        }
+        this.sweetRepository = sweetRepository;
+        this.shardRepository = shardRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isSharded(Long id) {
+        return shardCount(id) > 0;
+    }
+
+    @Override
+    public Sweet purchase(Long id, int qty) {
+        int shards = shardCount(id);
+        if (shards == 0) {
+            return delegate.purchase(id, qty);
+        }
+        if (!take(id, shards, qty)) {
+            throw new RuntimeException("Not enough stock available");
+        }
+        return withTotal(id);
+    }
+
+    @Override
+    public boolean tryPurchase(Long id, int qty) {
+        int shards = shardCount(id);
+        if (shards == 0) {
+            return delegate.tryPurchase(id, qty);
+        }
+        return take(id, shards, qty);
+    }
+
+    /**
+     * Runs the whole cart in one transaction. All sweet rows of the cart are locked first, in id
+     * order, then lines without shards go through the configured engine and sharded lines lock
+     * their shards in shard order. Concurrent carts, gathers and reshards therefore always lock
+     * in the same order.
+     */
+    @Override
+    public List<PurchaseLineResult> purchaseAll(List<PurchaseLine> lines) {
+        List<Long> ids = lines.stream().map(PurchaseLine::getSweetId).toList();
+        if (shardRepository.summarize(ids).isEmpty()) {
+            return delegate.purchaseAll(lines);
+        }
+        return transactionTemplate.execute(status -> {
+            List<Long> found = sweetRepository.findAllByIdInOrderByIdAsc(ids).stream().map(Sweet::getId).toList();
+            // Read under the row locks, so no reshard can change it until the cart commits
+            Map<Long, Long> sharded = new HashMap<>();
+            for (SweetStockShardRepository.ShardSummary summary : shardRepository.summarize(ids)) {
+                sharded.put(summary.getSweetId(), summary.getShards());
+            }
+            List<PurchaseLineResult> results = new ArrayList<>(lines.size());
+            for (PurchaseLine line : lines) {
+                if (!found.contains(line.getSweetId())) {
+                    results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.NOT_FOUND));
+                } else if (!sharded.containsKey(line.getSweetId())) {
+                    results.add(delegate.purchaseAll(List.of(line)).get(0));
+                } else if (gather(line.getSweetId(), line.getQuantity())) {
+                    results.add(PurchaseLineResult.purchased(line, totalQuantity(line.getSweetId())));
+                } else {
+                    results.add(PurchaseLineResult.failed(line, PurchaseLineResult.Status.INSUFFICIENT_STOCK));
+                }
+            }
+            if (BatchResults.allPurchased(results)) {
+                return results;
+            }
+            status.setRollbackOnly();
+            return BatchResults.rolledBack(results);
+        });
+    }
+
+    @Override
+    public Sweet restock(Long id, int qty) {
+        int shards = shardCount(id);
+        if (shards == 0) {
+            return delegate.restock(id, qty);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] split = split(qty, shards);
+            for (int shard = 0; shard < shards; shard++) {
+                if (split[shard] > 0) {
+                    shardRepository.add(id, shard, split[shard]);
+                }
+            }
+        });
+        return withTotal(id);
+    }
+
+    /**
+     * Adds the shards of sharded sweets to the quantities read from the sweets table, with one
+     * query. Sweets still managed by a persistence context are detached first: the total is only
+     * for the caller and must never be written back to sweets.quantity.
+     */
+    @Override
+    public void fillQuantities(Collection<Sweet> sweets) {
+        if (sweets.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(sweets.size());
+        for (Sweet sweet : sweets) {
+            ids.add(sweet.getId());
+        }
+        Map<Long, Long> totals = new HashMap<>();
+        // Only hot sweets have shards, so reading all of them is cheaper than a long IN list
+        List<SweetStockShardRepository.ShardSummary> summaries = ids.size() > MAX_SUMMARY_IDS
+                ? shardRepository.summarizeAll()
+                : shardRepository.summarize(ids);
+        for (SweetStockShardRepository.ShardSummary summary : summaries) {
+            totals.put(summary.getSweetId(), summary.getTotal());
+        }
+        for (Sweet sweet : sweets) {
+            Long total = totals.get(sweet.getId());
+            if (total != null) {
+                detach(sweet);
+                sweet.setQuantity(sweet.getQuantity() + total.intValue());
+            }
+        }
+    }
+
+    /**
+     * An admin update sets the sweet's total quantity, so it is spread over the shards again.
+     */
+    @Override
+    public void onSweetSaved(Sweet sweet) {
+        int shards = shardCount(sweet.getId());
+        if (shards > 0) {
+            reshard(sweet.getId(), shards, sweet.getQuantity());
+        }
+        delegate.onSweetSaved(sweet);
+    }
+
+    @Override
+    public void onSweetDeleted(Long id) {
+        shardRepository.deleteBySweetId(id);
+        delegate.onSweetDeleted(id);
+    }
+
+    /**
+     * The import wrote absolute quantities into the sweets table; the shards would come on top,
+     * so they are dropped and the imported value is the whole stock.
+     */
+    @Override
+    public void onQuantitiesImported(Collection<String> names) {
+        shardRepository.deleteBySweetNames(names);
+        delegate.onQuantitiesImported(names);
+    }
+
+    /**
+     * Spreads the sweet's current total over the given number of shards; 0 or 1 moves it
+     * back into the sweets table and turns sharding off for the sweet.
+     */
+    @Override
+    public void setShardCount(Long id, int shards) {
+        if (shards < 0 || shards > MAX_SHARDS) {
+            throw new RuntimeException("Shard count must be between 0 and " + MAX_SHARDS);
+        }
+        reshard(id, shards, null);
+    }
+
+    // -------------------- HELPERS --------------------
+
+    /**
+     * Takes qty units: a random shard first, then the others, then the sweet's row,
+     * and finally several rows at once under lock.
+     */
+    private boolean take(Long id, int shards, int qty) {
+        int first = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.take(id, (first + i) % shards, qty) == 1) {
+                return true;
+            }
+        }
+        if (sweetRepository.decrementStock(id, qty) == 1) {
+            return true;
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> gather(id, qty)));
+    }
+
+    // Must run in a transaction: the sweet row is locked first, like every other engine does
+    private boolean gather(Long id, int qty) {
+        List<Sweet> locked = sweetRepository.findAllByIdInOrderByIdAsc(List.of(id));
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Sweet not found");
+        }
+        Sweet sweet = locked.get(0);
+        List<SweetStockShard> shards = shardRepository.findBySweetIdOrderByShardAsc(id);
+
+        long total = sweet.getQuantity();
+        for (SweetStockShard shard : shards) {
+            total += shard.getQuantity();
+        }
+        if (total < qty) {
+            return false;
+        }
+
+        // Managed entities: the new quantities are written when the transaction commits
+        int left = qty;
+        for (SweetStockShard shard : shards) {
+            int taken = Math.min(left, shard.getQuantity());
+            shard.setQuantity(shard.getQuantity() - taken);
+            left -= taken;
+        }
+        if (left > 0) {
+            sweet.setQuantity(sweet.getQuantity() - left);
+        }
+        return true;
+    }
+
+    private int shardCount(Long id) {
+        return (int) shardRepository.countBySweetId(id);
+    }
+
+    // Row plus shards, read with queries so no entity is touched (pending writes are flushed first)
+    private int totalQuantity(Long id) {
+        int row = sweetRepository.findQuantityById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+        long shards = 0;
+        for (SweetStockShardRepository.ShardSummary summary : shardRepository.summarize(List.of(id))) {
+            shards += summary.getTotal();
+        }
+        return (int) (row + shards);
+    }
+
+    // The sweet as a detached copy carrying its total quantity
+    private Sweet withTotal(Long id) {
+        Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+        fillQuantities(List.of(sweet));
+        return sweet;
+    }
+
+    private void detach(Sweet sweet) {
+        if (entityManager.contains(sweet)) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Keep writes made to the row earlier in this transaction
+                entityManager.flush();
+            }
+            entityManager.detach(sweet);
+        }
+    }
+
+    /**
+     * Rewrites the sweet's stock as the given number of shards under lock. A null quantity
+     * keeps the current total (row plus shards).
+     */
+    private void reshard(Long id, int shards, Integer quantity) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Sweet> locked = sweetRepository.findAllByIdInOrderByIdAsc(List.of(id));
+            if (locked.isEmpty()) {
+                throw new RuntimeException("Sweet not found");
+            }
+            Sweet sweet = locked.get(0);
+            List<SweetStockShard> existing = shardRepository.findBySweetIdOrderByShardAsc(id);
+
+            long total = sweet.getQuantity();
+            for (SweetStockShard shard : existing) {
+                total += shard.getQuantity();
+            }
+            if (quantity != null) {
+                total = quantity;
+            }
+            if (total > Integer.MAX_VALUE) {
+                throw new RuntimeException("Quantity too large");
+            }
+
+            if (shards <= 1) {
+                shardRepository.deleteAll(existing);
+                sweet.setQuantity((int) total);
+                return;
+            }
+            // Existing shard rows are updated in place; new ones inserted, surplus ones deleted
+            int[] split = split((int) total, shards);
+            for (int shard = 0; shard < shards; shard++) {
+                if (shard < existing.size()) {
+                    existing.get(shard).setQuantity(split[shard]);
+                } else {
+                    shardRepository.save(new SweetStockShard(id, shard, split[shard]));
+                }
+            }
+            if (existing.size() > shards) {
+                shardRepository.deleteAll(existing.subList(shards, existing.size()));
+            }
+            sweet.setQuantity(0);
+        });
+    }
+
+    // qty split into n parts that differ by at most one
+    private static int[] split(int qty, int n) {
+        int[] parts = new int[n];
+        for (int i = 0; i < n; i++) {
+            parts[i] = qty / n + (i < qty % n ? 1 : 0);
+        }
+        return parts;
+    }
+}
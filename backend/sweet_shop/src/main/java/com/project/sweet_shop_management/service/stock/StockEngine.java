@@ -0,0 +1,103 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * StockEngine owns the reserve/decrement decision for sweet quantities.
+ *
+ * Implementations:
+ *  - JpaStockEngine                 → read-modify-write through SweetRepository (default)
+ *  - ConditionalUpdateStockEngine   → single conditional UPDATE per purchase
+ *  - InMemoryStockEngine            → lock-free counters in memory, persisted asynchronously
+ *  - ShardedStockEngine             → wraps jpa/conditional, splits hot sweets over several rows
+ *
+ * The active engine is chosen with the "sweetshop.stock.engine" property;
+ * sweetshop.stock.sharding.enabled=true adds ShardedStockEngine in front of it.
+ */
+public interface StockEngine {
+
+    /**
+     * Takes the given quantity out of stock.
+     *
+     * @param id       id of the sweet
+     * @param quantity units to take
+     * @return the sweet with its remaining quantity
+     * @throws RuntimeException if the sweet does not exist or there is not enough stock
+     */
+    Sweet purchase(Long id, int quantity);
+
+    /**
+     * Takes the given quantity out of stock without building a response entity.
+     *
+     * @param id       id of the sweet
+     * @param quantity units to take
+     * @return true if the stock was taken, false if there was not enough stock
+     * @throws RuntimeException if the sweet does not exist
+     */
+    boolean tryPurchase(Long id, int quantity);
+
+    /**
+     * Buys all lines or none of them.
+     *
+     * @param lines lines with distinct sweet ids, sorted by id so rows are always locked in the same order
+     * @return one result per line, in the same order; if any line failed, the others are ROLLED_BACK
+     */
+    List<PurchaseLineResult> purchaseAll(List<PurchaseLine> lines);
+
+    /**
+     * Adds the given quantity to stock.
+     *
+     * @param id       id of the sweet
+     * @param quantity units to add
+     * @return the sweet with its new quantity
+     */
+    Sweet restock(Long id, int quantity);
+
+    /**
+     * Whether quantities live in this engine rather than in the sweets table.
+     * Bulk writers (RestockWriteBehind) then go through restock() instead of updating the table.
+     */
+    default boolean holdsQuantities() {
+        return false;
+    }
+
+    /**
+     * Corrects the quantities of sweets read from the sweets table for stock the engine
+     * keeps elsewhere. Only ShardedStockEngine needs this.
+     */
+    default void fillQuantities(Collection<Sweet> sweets) {
+    }
+
+    /**
+     * Splits a sweet's stock over the given number of rows; 0 or 1 turns sharding off.
+     *
+     * @throws RuntimeException if the engine does not support sharding
+     */
+    default void setShardCount(Long id, int shards) {
+        throw new RuntimeException("Stock sharding is not enabled (sweetshop.stock.sharding.enabled)");
+    }
+
+    /**
+     * Called after a sweet was inserted or fully updated, so the engine can pick up
+     * the quantity that was written to the database.
+     */
+    default void onSweetSaved(Sweet sweet) {
+    }
+
+    /**
+     * Called after a bulk import set the quantities of the named sweets in the sweets table.
+     */
+    default void onQuantitiesImported(Collection<String> names) {
+    }
+
+    /**
+     * Called after a sweet was deleted.
+     */
+    default void onSweetDeleted(Long id) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StockStreamHub pushes stock changes to clients over server-sent events (GET /api/sweets/stream),
+ * so open tabs do not have to poll GET /api/sweets.
+ *
+ * How it works:
+ *  - Writers publish StockChange (and SweetCatalogEvent) events; the listener only records the
+ *    sweet id in one set, so a purchase pays O(1) no matter how many clients listen.
+ *  - Every coalesce-ms, dispatch() takes that set, reads the current quantities in one query, and
+ *    hands the batch to every subscriber. The quantity an event carries is not used: events of
+ *    concurrent writers can be published out of order, so the last one may be the older value.
+ *  - Each subscriber has its own buffer keyed by sweet id, so a slow client only ever holds the
+ *    latest quantity per sweet. If more than buffer-size sweets pile up, the buffer is dropped
+ *    and the client gets a "resync" event telling it to reload the list.
+ *  - Each subscriber is written by its own virtual thread, which parks while there is nothing
+ *    to send; a blocked socket only stalls that one thread. Idle streams get a comment every
+ *    heartbeat-ms so dead connections are noticed.
+ *
+ * Events:
+ *  - event: stock   data: [{"sweetId":1,"quantity":41}, ...]
+ *  - event: resync  data: {}
+ *
+ * Note:
+ *  - Streams end after sweetshop.stream.timeout; clients reconnect and reload.
+ *  - Tomcat's server.tomcat.max-connections must be above max-subscribers.
+ */
+@Component
+public class StockStreamHub {
+
+    private final SweetRepository sweetRepository;
+    private final StockEngine stockEngine;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long heartbeatNanos;
+
+    // Ids of the sweets whose stock changed since the last dispatch
+    private final Set<Long> changes = ConcurrentHashMap.newKeySet();
+
+    // Set by a bulk import; every subscriber is told to reload
+    private final AtomicBoolean resyncAll = new AtomicBoolean();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // One permit per possible subscriber: taken before a subscriber is added, returned when it is removed
+    private final Semaphore slots;
+
+    public StockStreamHub(SweetRepository sweetRepository,
+                          StockEngine stockEngine,
+                          @Value("${sweetshop.stream.timeout:30m}") Duration timeout,
+                          @Value("${sweetshop.stream.buffer-size:1000}") int bufferSize,
+                          @Value("${sweetshop.stream.max-subscribers:20000}") int maxSubscribers,
+                          @Value("${sweetshop.stream.heartbeat:15s}") Duration heartbeat) {
+        this.sweetRepository = sweetRepository;
+        this.stockEngine = stockEngine;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.slots = new Semaphore(maxSubscribers);
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    /**
+     * Opens a stream for one client.
+     *
+     * @return the emitter to return from the controller, or null if max-subscribers are connected
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        return subscribe(emitter) ? emitter : null;
+    }
+
+    // Starts pushing changes into the given emitter; false if there are already max-subscribers
+    boolean subscribe(SseEmitter emitter) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        Thread.ofVirtual().name("stock-stream").start(subscriber);
+        return true;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onStockChange(StockChange change) {
+        changes.add(change.sweetId());
+    }
+
+    @EventListener
+    public void onCatalogChange(SweetCatalogEvent event) {
+        switch (event.type()) {
+            case SAVED -> changes.add(event.sweetId());
+            case DELETED -> changes.remove(event.sweetId());
+            case RELOADED -> resyncAll.set(true);
+        }
+    }
+
+    /**
+     * Hands the changes collected since the last run to every subscriber.
+     */
+    @Scheduled(fixedDelayString = "${sweetshop.stream.coalesce-ms:250}")
+    public void dispatch() {
+        boolean resync = resyncAll.getAndSet(false);
+        if (subscribers.isEmpty()) {
+            changes.clear();
+            return;
+        }
+        if (resync) {
+            changes.clear();
+            subscribers.forEach(Subscriber::resync);
+            return;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Long id : changes) {
+            // A change recorded after this remove is picked up by the next dispatch
+            if (changes.remove(id)) {
+                ids.add(id);
+            }
+        }
+        Map<Long, Integer> batch = new HashMap<>();
+        List<Sweet> sweets = sweetRepository.findAllById(ids);
+        stockEngine.fillQuantities(sweets);
+        for (Sweet sweet : sweets) {
+            batch.put(sweet.getId(), sweet.getQuantity());
+        }
+        if (!batch.isEmpty()) {
+            subscribers.forEach(subscriber -> subscriber.offer(batch));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * One connected client: a coalescing buffer plus the virtual thread that writes it out.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        // Guarded by lock
+        private final LinkedHashMap<Long, Integer> pending = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Map<Long, Integer> batch) {
+            lock.lock();
+            try {
+                if (closed || resync) {
+                    return;
+                }
+                pending.putAll(batch);
+                if (pending.size() > bufferSize) {
+                    pending.clear();
+                    resync = true;
+                }
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void resync() {
+            lock.lock();
+            try {
+                pending.clear();
+                resync = true;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                closed = true;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    boolean sendResync;
+                    List<StockChange> batch;
+                    lock.lock();
+                    try {
+                        long wait = heartbeatNanos;
+                        while (!closed && !resync && pending.isEmpty() && wait > 0) {
+                            wait = changed.awaitNanos(wait);
+                        }
+                        if (closed) {
+                            return;
+                        }
+                        sendResync = resync;
+                        resync = false;
+                        batch = new ArrayList<>(pending.size());
+                        pending.forEach((id, quantity) -> batch.add(new StockChange(id, quantity)));
+                        pending.clear();
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    // Written outside the lock, so a slow client never blocks dispatch()
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}"));
+                    } else if (!batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("stock").data(batch, MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter timed out
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (subscribers.remove(this)) {
+                    slots.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.project.sweet_shop_management.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.sweet_shop_management.model.Sweet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response bytes per second for GET /api/sweets, per request thread, at different catalog sizes.
+ *
+ *  - jackson         → serialize List<Sweet> per request, what the message converter did before
+ *  - jacksonGzip     → the same, compressed per request (what server.compression would do)
+ *  - snapshot        → write the pre-rendered JSON array (SweetCatalogSnapshot)
+ *  - snapshotGzip    → write the pre-rendered gzip copy
+ *
+ * The "bytes" column is the body bytes produced per second; the gzip variants serve fewer
+ * bytes for the same catalog, so compare their ops/s as well. Loading the sweets from the
+ * database is the same for both paths and left out.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.sweet_shop_management.benchmark.CatalogSnapshotBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CatalogSnapshotBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int sweets;
+
+    private List<Sweet> catalog;
+    private ObjectWriter listWriter;
+    private byte[] json;
+    private byte[] gzip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catalog = new ArrayList<>(sweets);
+        for (long id = 1; id <= sweets; id++) {
+            Sweet sweet = new Sweet("Sweet " + id, "Category " + id % 20, (id * 7919 % 50000) / 100.0, 100);
+            sweet.setId(id);
+            catalog.add(sweet);
+        }
+        listWriter = new ObjectMapper().writerFor(new TypeReference<List<Sweet>>() {
+        });
+        json = listWriter.writeValueAsBytes(catalog);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        }
+        gzip = out.toByteArray();
+    }
+
+    /**
+     * Stands in for the response stream: copies everything into a 64 KB buffer, like the
+     * socket send buffer, and counts the bytes (reported by JMH per second).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Response extends OutputStream {
+
+        public long bytes;
+
+        private final byte[] buffer = new byte[64 * 1024];
+        private int position;
+
+        @Override
+        public void write(int b) {
+            if (position == buffer.length) {
+                position = 0;
+            }
+            buffer[position++] = (byte) b;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            while (len > 0) {
+                if (position == buffer.length) {
+                    position = 0;
+                }
+                int chunk = Math.min(len, buffer.length - position);
+                System.arraycopy(b, off, buffer, position, chunk);
+                position += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+    }
+
+    @Benchmark
+    public void jackson(Response response) throws IOException {
+        listWriter.writeValue(response, catalog);
+    }
+
+    @Benchmark
+    public void jacksonGzip(Response response) throws IOException {
+        GZIPOutputStream gz = new GZIPOutputStream(response);
+        listWriter.writeValue(gz, catalog);
+        gz.finish();
+    }
+
+    @Benchmark
+    public void snapshot(Response response) throws IOException {
+        response.write(json, 0, json.length);
+    }
+
+    @Benchmark
+    public void snapshotGzip(Response response) throws IOException {
+        response.write(gzip, 0, gzip.length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.project.sweet_shop_management.benchmark;
+
+import com.project.sweet_shop_management.service.JWTService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.KeyGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU cost of JWT validation in JwtFilter.
+ *
+ *  - perRequestBefore → the old flow: extractUserName + validateToken, i.e. three parses,
+ *                       each building a new parser and decoding the Base64 key
+ *  - perRequestAfter  → JWTService.verify: one parse with the prebuilt parser and key
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.sweet_shop_management.benchmark.JwtValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private JWTService jwtService;
+    private String token;
+
+    private String base64Key;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtService = new JWTService();
+        token = jwtService.generateToken("john");
+
+        base64Key = Base64.getEncoder().encodeToString(
+                KeyGenerator.getInstance("HmacSHA256").generateKey().getEncoded());
+        legacyToken = Jwts.builder()
+                .subject("john")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(base64Key)))
+                .compact();
+    }
+
+    @Benchmark
+    public boolean perRequestBefore() {
+        String username = legacyParse(legacyToken).getSubject();       // JwtFilter: extractUserName
+        boolean sameUser = legacyParse(legacyToken).getSubject()       // validateToken: extractUserName
+                .equals(username);
+        boolean expired = legacyParse(legacyToken).getExpiration()     // validateToken: isTokenExpired
+                .before(new Date());
+        return sameUser && !expired;
+    }
+
+    @Benchmark
+    public boolean perRequestAfter() {
+        return jwtService.verify(token).isPresent();
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(base64Key)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,144 @@
+package com.project.sweet_shop_management.benchmark;
+
+import com.project.sweet_shop_management.SweetShopManagementApplication;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.repository.SweetSpecifications;
+import com.project.sweet_shop_management.service.SweetService;
+import com.project.sweet_shop_management.service.search.SweetSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one price range search ("slider moved") at different catalog sizes. Every benchmark
+ * returns the same thing - the matching sweets as entities, in id order - so they can be compared.
+ *
+ *  - repositoryQuery → the specification query /api/sweets/search falls back to, against H2
+ *                      (in-memory, with idx_sweets_price), i.e. the best case for the database
+ *                      path: no network, no disk
+ *  - indexThenRows   → SweetSearchIndex.search for the ids, then one primary key query for the rows
+ *                      (SweetServiceImpl without the cache)
+ *  - indexThenCache  → SweetService.searchSweets as the controller calls it: ids from the index,
+ *                      sweets assembled from the warm CachingSweetService cache
+ *
+ * The range covers about 0.2% of the catalog (20, 200 and 2000 sweets).
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.sweet_shop_management.benchmark.PriceRangeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceRangeBenchmark {
+
+    // Prices are 0.00 .. 499.99; the range below holds 100 of the 50000 distinct values
+    private static final SweetSearchCriteria CRITERIA = new SweetSearchCriteria(null, null, 200.00, 200.99);
+
+    @Param({"10000", "100000", "1000000"})
+    private int sweets;
+
+    private ConfigurableApplicationContext context;
+    private SweetRepository sweetRepository;
+    private SweetSearchIndex searchIndex;
+    private SweetService sweetService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SweetShopManagementApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:price-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                // Steady state for the cached path: nothing expires during a run
+                "--sweetshop.catalog-cache.stock-ttl=1h",
+                "--logging.level.root=WARN");
+        sweetRepository = context.getBean(SweetRepository.class);
+        searchIndex = context.getBean(SweetSearchIndex.class);
+        sweetService = context.getBean(SweetService.class);
+
+        context.getBean(JdbcTemplate.class).update(
+                "insert into sweets (name, category, price, quantity, version, edit_version) "
+                        + "select concat('Sweet ', x), concat('Category ', mod(x, 20)), mod(x * 7919, 50000) / 100.0, 100, 0, 0 "
+                        + "from system_range(1, ?)", sweets);
+        // The startup load saw an empty table
+        searchIndex.load();
+
+        List<Long> expected = ids(repositoryQuery());
+        if (!expected.equals(ids(indexThenRows())) || !expected.equals(ids(indexThenCache()))) {
+            throw new IllegalStateException("Benchmarks disagree on the matching sweets");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Sweet> repositoryQuery() {
+        return sweetRepository.findAll(SweetSpecifications.matching(CRITERIA), Sort.by("id"));
+    }
+
+    @Benchmark
+    public List<Sweet> indexThenRows() {
+        long[] ids = searchIndex.search(CRITERIA);
+        Map<Long, Sweet> byId = new HashMap<>();
+        for (Sweet sweet : sweetRepository.findAllById(Arrays.stream(ids).boxed().toList())) {
+            byId.put(sweet.getId(), sweet);
+        }
+        List<Sweet> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Sweet> indexThenCache() {
+        return sweetService.searchSweets(CRITERIA, Pageable.unpaged()).getContent();
+    }
+
+    private static List<Long> ids(List<Sweet> sweets) {
+        return sweets.stream().map(Sweet::getId).toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceRangeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
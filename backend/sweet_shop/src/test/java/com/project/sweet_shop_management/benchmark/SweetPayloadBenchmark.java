@@ -0,0 +1,117 @@
+package com.project.sweet_shop_management.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.sweet_shop_management.model.Sweet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Time to produce one list response body: every field of every sweet (GET /api/sweets) against
+ * only id, name and price (GET /api/sweets?fields=id,name,price), each plain and gzip-compressed.
+ *
+ * The body sizes of each variant are printed once per trial, so bandwidth and CPU can be
+ * compared side by side. Loading the rows is left out; the projection also reads fewer columns.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.sweet_shop_management.benchmark.SweetPayloadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SweetPayloadBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int sweets;
+
+    private List<Sweet> catalog;
+    private List<Map<String, Object>> projected;
+    private ObjectWriter fullWriter;
+    private ObjectWriter fieldsWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catalog = new ArrayList<>(sweets);
+        projected = new ArrayList<>(sweets);
+        for (long id = 1; id <= sweets; id++) {
+            Sweet sweet = new Sweet("Sweet " + id, "Category " + id % 20, (id * 7919 % 50000) / 100.0, 100);
+            sweet.setId(id);
+            catalog.add(sweet);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("name", sweet.getName());
+            row.put("price", sweet.getPrice());
+            projected.add(row);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        fullWriter = mapper.writerFor(new TypeReference<List<Sweet>>() {
+        });
+        fieldsWriter = mapper.writerFor(new TypeReference<List<Map<String, Object>>>() {
+        });
+
+        System.out.printf("%n%d sweets: full %d B (gzip %d B), fields=id,name,price %d B (gzip %d B)%n", sweets,
+                full().length, fullGzip().length, fields().length, fieldsGzip().length);
+    }
+
+    @Benchmark
+    public byte[] full() throws IOException {
+        return fullWriter.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] fullGzip() throws IOException {
+        return gzip(fullWriter, catalog);
+    }
+
+    @Benchmark
+    public byte[] fields() throws IOException {
+        return fieldsWriter.writeValueAsBytes(projected);
+    }
+
+    @Benchmark
+    public byte[] fieldsGzip() throws IOException {
+        return gzip(fieldsWriter, projected);
+    }
+
+    private static byte[] gzip(ObjectWriter writer, Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            writer.writeValue(gz, value);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SweetPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.sweet_shop_management.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseAdmissionFilterTest {
+
+    private final DatabaseAdmissionFilter filter = new DatabaseAdmissionFilter(1, 10);
+
+    @Test
+    void testSlotIsReturnedWhenTheRequestEnds() throws Exception {
+        assertEquals(200, run(new MockHttpServletRequest("GET", "/api/sweets")).getStatus());
+        assertEquals(200, run(new MockHttpServletRequest("GET", "/api/sweets")).getStatus());
+    }
+
+    @Test
+    void testAsyncResponseKeepsItsSlotUntilCompleted() throws Exception {
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/sweets/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        MockHttpServletResponse busy = run(new MockHttpServletRequest("GET", "/api/sweets"));
+        assertEquals(503, busy.getStatus());
+        assertEquals("1", busy.getHeader("Retry-After"));
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(200, run(new MockHttpServletRequest("GET", "/api/sweets")).getStatus());
+    }
+
+    @Test
+    void testStockStreamIsNotCounted() throws Exception {
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/sweets/stream");
+        stream.setAsyncSupported(true);
+        filter.doFilter(stream, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(200, run(new MockHttpServletRequest("GET", "/api/sweets")).getStatus());
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
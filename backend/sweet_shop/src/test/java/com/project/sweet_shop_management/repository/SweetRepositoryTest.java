@@ -0,0 +1,117 @@
+package com.project.sweet_shop_management.repository;
+
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false)
+class SweetRepositoryTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    private Sweet gulabJamun;
+    private Sweet rasgulla;
+    private Sweet truffle;
+
+    @BeforeEach
+    void setUp() {
+        gulabJamun = sweetRepository.save(new Sweet("Gulab Jamun", "Indian", 50, 100));
+        rasgulla = sweetRepository.save(new Sweet("Rasgulla", "Indian", 40, 80));
+        truffle = sweetRepository.save(new Sweet("Dark Truffle", "Chocolate", 45, 30));
+    }
+
+    @Test
+    void testCombinedSearchAppliesAllCriteria() {
+        SweetSearchCriteria criteria = new SweetSearchCriteria(null, "Indian", 45.0, null);
+
+        List<Sweet> result = sweetRepository.findAll(SweetSpecifications.matching(criteria), Sort.by("id"));
+
+        assertEquals(List.of(gulabJamun.getId()), result.stream().map(Sweet::getId).toList());
+    }
+
+    @Test
+    void testCombinedSearchNameIsCaseInsensitiveAndPaged() {
+        SweetSearchCriteria criteria = new SweetSearchCriteria("U", null, 40.0, 50.0);
+
+        Page<Sweet> page = sweetRepository.findAll(SweetSpecifications.matching(criteria),
+                PageRequest.of(0, 2, Sort.by("id")));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(gulabJamun.getId(), rasgulla.getId()), page.getContent().stream().map(Sweet::getId).toList());
+    }
+
+    @Test
+    void testPriceRangeComesCheapestFirst() {
+        List<Sweet> result = sweetRepository.findByPriceBetweenOrderByPriceAscIdAsc(40, 50);
+
+        assertEquals(List.of(rasgulla.getId(), truffle.getId(), gulabJamun.getId()),
+                result.stream().map(Sweet::getId).toList());
+    }
+
+    @Test
+    void testCombinedSearchCategoryMatchesPartOfIt() {
+        SweetSearchCriteria criteria = new SweetSearchCriteria(null, "choc", null, null);
+
+        List<Sweet> result = sweetRepository.findAll(SweetSpecifications.matching(criteria), Sort.by("id"));
+
+        assertEquals(List.of(truffle.getId()), result.stream().map(Sweet::getId).toList());
+    }
+
+    @Test
+    void testKeysetPageStartsAfterGivenId() {
+        List<Sweet> next = sweetRepository.findByIdGreaterThanOrderByIdAsc(gulabJamun.getId(), Limit.of(5));
+
+        assertEquals(List.of(rasgulla.getId(), truffle.getId()), next.stream().map(Sweet::getId).toList());
+    }
+
+    @Test
+    void testFindFieldsSelectsOnlyRequestedColumns() {
+        SweetSearchCriteria criteria = new SweetSearchCriteria(null, "Indian", null, null);
+
+        List<Map<String, Object>> rows = sweetRepository.findFields(List.of("price", "name"),
+                SweetSpecifications.matching(criteria));
+
+        assertEquals(List.of(
+                Map.of("id", gulabJamun.getId(), "name", "Gulab Jamun", "price", 50.0),
+                Map.of("id", rasgulla.getId(), "name", "Rasgulla", "price", 40.0)), rows);
+        assertEquals(List.of("id", "name", "price"), List.copyOf(rows.get(0).keySet()));
+    }
+
+    @Test
+    void testSaveWithStaleVersionIsRejected() {
+        Sweet stale = new Sweet(truffle.getName(), truffle.getCategory(), truffle.getPrice(), truffle.getQuantity());
+        stale.setId(truffle.getId());
+        stale.setVersion(truffle.getVersion());
+
+        truffle.setQuantity(10);
+        sweetRepository.saveAndFlush(truffle);
+
+        stale.setQuantity(99);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sweetRepository.saveAndFlush(stale));
+    }
+
+    @Test
+    void testBulkStockUpdatesBumpVersion() {
+        sweetRepository.flush();
+        long before = truffle.getVersion();
+
+        sweetRepository.decrementStock(truffle.getId(), 5);
+        sweetRepository.incrementStock(truffle.getId(), 2);
+
+        assertEquals(before + 2, sweetRepository.findById(truffle.getId()).orElseThrow().getVersion());
+    }
+}
@@ -20,6 +20,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
     private JWTService jwtService;
     private AuthenticationManager authenticationManager;
+    private UserDetailsCache userDetailsCache;
     private AuthService authService;
 
     @BeforeEach
@@ -27,10 +28,12 @@ class AuthServiceTest {
         userRepository = Mockito.mock(UserRepository.class);
         jwtService = Mockito.mock(JWTService.class);
         authenticationManager = Mockito.mock(AuthenticationManager.class);
+        userDetailsCache = Mockito.mock(UserDetailsCache.class);
         authService = new AuthService();
         authService.userRepository = userRepository;
         authService.jwtService = jwtService;
         authService.authenticationManager = authenticationManager;
+        authService.userDetailsCache = userDetailsCache;
     }
 
     @Test
@@ -45,6 +48,7 @@ class AuthServiceTest {
 
         assertNotEquals("plain123", saved.getPassword()); // Password should be encrypted
         verify(userRepository, times(1)).save(any(Users.class));
+        verify(userDetailsCache, times(1)).evict("john");
     }
 
     @Test
@@ -59,12 +63,13 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(auth);
         when(auth.isAuthenticated()).thenReturn(true);
-        when(jwtService.generateToken("john")).thenReturn("fake-jwt-token");
+        when(jwtService.generateToken("john", "USER")).thenReturn("fake-jwt-token");
 
         Users dbUser = new Users();
         dbUser.setId(1L);
         dbUser.setName("john");
         dbUser.setPassword("hashed-pass");
+        dbUser.setRole("USER");
         when(userRepository.findByName("john")).thenReturn(dbUser);
 
         // Act
@@ -78,4 +83,24 @@ class AuthServiceTest {
         assertEquals(1L, response.getUser().getId());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testRefreshTokenUsesTheCurrentRole() {
+        Users dbUser = new Users();
+        dbUser.setName("john");
+        dbUser.setRole("ADMIN");
+        when(userRepository.findByName("john")).thenReturn(dbUser);
+        when(jwtService.generateToken("john", "ADMIN")).thenReturn("admin-token");
+
+        LoginResponse response = authService.refreshToken("john").orElseThrow();
+
+        assertEquals("admin-token", response.getToken());
+    }
+
+    @Test
+    void testRefreshTokenOfDeletedUserIsEmpty() {
+        when(userRepository.findByName("gone")).thenReturn(null);
+
+        assertTrue(authService.refreshToken("gone").isEmpty());
+        verifyNoInteractions(jwtService);
+    }
+}
@@ -0,0 +1,163 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingSweetServiceTest {
+
+    private SweetServiceImpl delegate;
+    private CachingSweetService cachingService;
+
+    private Sweet sweet1;
+    private Sweet sweet2;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(SweetServiceImpl.class);
+        cachingService = new CachingSweetService(delegate, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofMinutes(10));
+
+        sweet1 = new Sweet("Gulab Jamun", "Indian", 50, 100);
+        sweet1.setId(1L);
+        sweet2 = new Sweet("Rasgulla", "Indian", 40, 80);
+        sweet2.setId(2L);
+    }
+
+    @Test
+    void testGetAllSweetsIsServedFromCache() {
+        when(delegate.getAllSweets()).thenReturn(Arrays.asList(sweet1, sweet2));
+
+        assertEquals(2, cachingService.getAllSweets().size());
+        assertEquals(2, cachingService.getAllSweets().size());
+        assertEquals("Rasgulla", cachingService.getSweetById(2L).orElseThrow().getName());
+
+        verify(delegate, times(1)).getAllSweets();
+        verify(delegate, never()).getSweetById(anyLong());
+    }
+
+    @Test
+    void testPurchaseOnlyReloadsStockOfThatSweet() {
+        when(delegate.getAllSweets()).thenReturn(Arrays.asList(sweet1, sweet2));
+        cachingService.getAllSweets();
+
+        Sweet afterPurchase = new Sweet("Gulab Jamun", "Indian", 50, 90);
+        afterPurchase.setId(1L);
+        when(delegate.purchaseSweet(1L, 10)).thenReturn(afterPurchase);
+        when(delegate.getSweetsByIds(List.of(1L))).thenReturn(List.of(afterPurchase));
+
+        cachingService.purchaseSweet(1L, 10);
+        List<Sweet> sweets = cachingService.getAllSweets();
+
+        assertEquals(90, sweets.get(0).getQuantity());
+        assertEquals(80, sweets.get(1).getQuantity());
+        verify(delegate, times(1)).getAllSweets();
+        verify(delegate, times(1)).getSweetsByIds(List.of(1L));
+    }
+
+    @Test
+    void testStockChangeFromAnyWriterDropsCachedStock() {
+        when(delegate.getAllSweets()).thenReturn(Arrays.asList(sweet1, sweet2));
+        cachingService.getAllSweets();
+
+        // e.g. a reservation or a flushed queued restock, which never pass through this service
+        Sweet reserved = new Sweet("Gulab Jamun", "Indian", 50, 95);
+        reserved.setId(1L);
+        when(delegate.getSweetsByIds(List.of(1L))).thenReturn(List.of(reserved));
+        cachingService.onStockChange(StockChange.changed(1L));
+
+        assertEquals(95, cachingService.getAllSweets().get(0).getQuantity());
+        verify(delegate, times(1)).getAllSweets();
+    }
+
+    @Test
+    void testRowReadBeforeAConcurrentWriteIsNotCached() {
+        Sweet fresh = new Sweet("Gulab Jamun", "Indian", 50, 70);
+        fresh.setId(1L);
+        when(delegate.getSweetById(1L))
+                .thenAnswer(invocation -> {
+                    // a purchase commits and evicts while this (older) row is on its way back
+                    cachingService.onStockChange(new StockChange(1L, 70));
+                    return Optional.of(sweet1);
+                })
+                .thenReturn(Optional.of(fresh));
+
+        assertEquals(100, cachingService.getSweetById(1L).orElseThrow().getQuantity());
+        assertEquals(70, cachingService.getSweetById(1L).orElseThrow().getQuantity());
+        assertEquals(70, cachingService.getSweetById(1L).orElseThrow().getQuantity());
+        verify(delegate, times(2)).getSweetById(1L);
+    }
+
+    @Test
+    void testQueryLoadedBeforeAConcurrentAddIsNotCached() {
+        Sweet added = new Sweet("Kaju Katli", "Indian", 60, 10);
+        added.setId(3L);
+        when(delegate.searchByCategory("Indian"))
+                .thenAnswer(invocation -> {
+                    cachingService.onCatalogChange(SweetCatalogEvent.saved(added));
+                    return List.of(sweet1, sweet2);
+                })
+                .thenReturn(List.of(sweet1, sweet2, added));
+
+        assertEquals(2, cachingService.searchByCategory("Indian").size());
+        assertEquals(3, cachingService.searchByCategory("Indian").size());
+        verify(delegate, times(2)).searchByCategory("Indian");
+    }
+
+    @Test
+    void testUpdateInvalidatesItemAndQueries() {
+        when(delegate.getSweetById(1L)).thenReturn(Optional.of(sweet1));
+        when(delegate.searchByCategory("Indian")).thenReturn(List.of(sweet1));
+        cachingService.getSweetById(1L);
+        cachingService.searchByCategory("Indian");
+
+        Sweet updated = new Sweet("Gulab Jamun", "Bengali", 60, 100);
+        updated.setId(1L);
+        when(delegate.updateSweet(1L, updated)).thenReturn(updated);
+        when(delegate.getSweetById(1L)).thenReturn(Optional.of(updated));
+        when(delegate.searchByCategory("Indian")).thenReturn(List.of());
+
+        cachingService.updateSweet(1L, updated);
+
+        assertEquals(60, cachingService.getSweetById(1L).orElseThrow().getPrice());
+        assertTrue(cachingService.searchByCategory("Indian").isEmpty());
+    }
+
+    @Test
+    void testIndexedSearchPagesAreAssembledFromCache() {
+        when(delegate.getAllSweets()).thenReturn(Arrays.asList(sweet1, sweet2));
+        cachingService.getAllSweets();
+        SweetSearchCriteria criteria = new SweetSearchCriteria(null, null, 30.0, 60.0);
+        when(delegate.searchIds(criteria)).thenReturn(Optional.of(new long[]{1L, 2L}));
+
+        Page<Sweet> page = cachingService.searchSweets(criteria, PageRequest.of(1, 1));
+
+        assertEquals(List.of(2L), page.getContent().stream().map(Sweet::getId).toList());
+        assertEquals(2, page.getTotalElements());
+        verify(delegate, never()).searchSweets(any(), any());
+        verify(delegate, never()).getSweetsByIds(any());
+    }
+
+    @Test
+    void testCallersCannotModifyCachedSweets() {
+        when(delegate.getSweetById(1L)).thenReturn(Optional.of(sweet1));
+
+        cachingService.getSweetById(1L).orElseThrow().setPrice(1);
+        assertEquals(50, cachingService.getSweetById(1L).orElseThrow().getPrice());
+    }
+}
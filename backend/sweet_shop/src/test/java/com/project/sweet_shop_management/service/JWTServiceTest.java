@@ -0,0 +1,40 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.JwtClaims;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTServiceTest {
+
+    private final JWTService jwtService = new JWTService();
+
+    @Test
+    void testVerifyReturnsClaimsOfValidToken() {
+        String token = jwtService.generateToken("john");
+
+        Optional<JwtClaims> claims = jwtService.verify(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("john", claims.get().subject());
+        assertTrue(claims.get().expiration().after(new Date()));
+    }
+
+    @Test
+    void testVerifyRejectsForeignAndMalformedTokens() {
+        String foreignToken = new JWTService().generateToken("john");
+
+        assertTrue(jwtService.verify(foreignToken).isEmpty());
+        assertTrue(jwtService.verify("not-a-jwt").isEmpty());
+        assertTrue(jwtService.verify("").isEmpty());
+    }
+
+    @Test
+    void testRoleClaimIsCarriedInToken() {
+        assertEquals("ADMIN", jwtService.verify(jwtService.generateToken("john", "ADMIN")).orElseThrow().role());
+        assertNull(jwtService.verify(jwtService.generateToken("john")).orElseThrow().role());
+    }
+}
@@ -1,14 +1,23 @@
 package com.project.sweet_shop_management.service;
 
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.StockDelta;
 import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
 import com.project.sweet_shop_management.repository.SweetRepository;
 import com.project.sweet_shop_management.service.SweetServiceImpl;
+import com.project.sweet_shop_management.service.search.SweetSearchIndex;
+import com.project.sweet_shop_management.service.stock.JpaStockEngine;
+import com.project.sweet_shop_management.service.stock.RestockWriteBehind;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,7 +31,12 @@ class SweetServiceImplTest {
     @Mock
     private SweetRepository sweetRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private RestockWriteBehind restockQueue;
+
     private SweetServiceImpl sweetService;
 
     private Sweet sweet1;
@@ -31,6 +45,9 @@ class SweetServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        sweetService = new SweetServiceImpl(sweetRepository, new JpaStockEngine(sweetRepository),
+                new SweetSearchIndex(sweetRepository, false, 50), events, restockQueue,
+                new OptimisticRetry(new SimpleMeterRegistry(), 3, 0));
 
         sweet1 = new Sweet();
         sweet1.setId(1L);
@@ -53,6 +70,7 @@ class SweetServiceImplTest {
         Sweet result = sweetService.addSweet(sweet1);
         assertEquals(sweet1, result);
         verify(sweetRepository, times(1)).save(sweet1);
+        verify(events).publishEvent(SweetCatalogEvent.saved(sweet1));
     }
 
     @Test
@@ -65,7 +83,7 @@ class SweetServiceImplTest {
 
     @Test
     void testSearchByName() {
-        when(sweetRepository.findByNameContainingIgnoreCase("Gulab")).thenReturn(List.of(sweet1));
+        when(sweetRepository.findByNameContainingIgnoreCaseOrderByIdAsc("Gulab", Limit.of(50))).thenReturn(List.of(sweet1));
         List<Sweet> result = sweetService.searchByName("Gulab");
         assertEquals(1, result.size());
         assertEquals("Gulab Jamun", result.get(0).getName());
@@ -73,14 +91,14 @@ class SweetServiceImplTest {
 
     @Test
     void testSearchByCategory() {
-        when(sweetRepository.findByCategoryContainingIgnoreCase("Indian")).thenReturn(Arrays.asList(sweet1, sweet2));
+        when(sweetRepository.findByCategoryContainingIgnoreCaseOrderByIdAsc("Indian", Limit.of(50))).thenReturn(Arrays.asList(sweet1, sweet2));
         List<Sweet> result = sweetService.searchByCategory("Indian");
         assertEquals(2, result.size());
     }
 
     @Test
     void testSearchByPriceRange() {
-        when(sweetRepository.findByPriceBetween(30, 50)).thenReturn(Arrays.asList(sweet1, sweet2));
+        when(sweetRepository.findByPriceBetweenOrderByPriceAscIdAsc(30, 50)).thenReturn(Arrays.asList(sweet1, sweet2));
         List<Sweet> result = sweetService.searchByPriceRange(30, 50);
         assertEquals(2, result.size());
     }
@@ -115,6 +133,7 @@ class SweetServiceImplTest {
         doNothing().when(sweetRepository).deleteById(1L);
         sweetService.deleteSweet(1L);
         verify(sweetRepository, times(1)).deleteById(1L);
+        verify(events).publishEvent(SweetCatalogEvent.deleted(1L));
     }
 
     @Test
@@ -144,6 +163,76 @@ class SweetServiceImplTest {
         Sweet result = sweetService.restockSweet(1L, 50);
         assertEquals(150, result.getQuantity());
     }
-}
 
+    @Test
+    void testQueueRestocksRejectsBadLineBeforeQueueing() {
+        List<StockDelta> deltas = List.of(new StockDelta(1L, 5), new StockDelta(2L, 0));
+
+        assertThrows(RuntimeException.class, () -> sweetService.queueRestocks(deltas));
+        verifyNoInteractions(restockQueue);
 
+        sweetService.queueRestocks(List.of(new StockDelta(1L, 5)));
+        verify(restockQueue).accept(1L, 5);
+    }
+
+    @Test
+    void testCartLinesAddingUpPastIntMaxAreRejected() {
+        List<PurchaseLine> lines = List.of(new PurchaseLine(1L, Integer.MAX_VALUE), new PurchaseLine(1L, 2));
+
+        assertThrows(InvalidStockLineException.class, () -> sweetService.purchaseSweets(lines));
+        verifyNoInteractions(sweetRepository, events);
+    }
+
+    @Test
+    void testUpdateSweetIsRetriedAfterAStockOnlyVersionConflict() {
+        // Every attempt loads a fresh row, as after a rollback
+        when(sweetRepository.findById(1L)).thenAnswer(inv -> Optional.of(new Sweet("Gulab Jamun", "Indian", 50, 90)));
+        when(sweetRepository.save(any(Sweet.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Sweet.class, 1L))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        Sweet result = sweetService.updateSweet(1L, sweet2);
+
+        assertEquals("Rasgulla", result.getName());
+        assertEquals(1, result.getEditVersion());
+        verify(sweetRepository, times(2)).save(any(Sweet.class));
+    }
+
+    @Test
+    void testUpdateSweetRejectsOutdatedVersion() {
+        sweet1.setEditVersion(3);
+        sweet2.setEditVersion(2);
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet1));
+
+        assertThrows(SweetUpdateConflictException.class, () -> sweetService.updateSweet(1L, sweet2));
+        assertEquals("Gulab Jamun", sweet1.getName());
+        verify(sweetRepository, never()).save(any(Sweet.class));
+    }
+
+    @Test
+    void testPurchaseSweetGivesUpAfterMaxAttempts() {
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet1));
+        when(sweetRepository.save(any(Sweet.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Sweet.class, 1L));
+
+        assertThrows(SweetUpdateConflictException.class, () -> sweetService.purchaseSweet(1L, 1));
+        verify(sweetRepository, times(3)).save(any(Sweet.class));
+    }
+
+    @Test
+    void testInterruptedRetryKeepsTheFlagAndIsNotAConflict() {
+        OptimisticRetry retry = new OptimisticRetry(new SimpleMeterRegistry(), 3, 1000);
+
+        Thread.currentThread().interrupt();
+        try {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> retry.run("purchase", 1L, () -> {
+                throw new ObjectOptimisticLockingFailureException(Sweet.class, 1L);
+            }));
+            assertFalse(e instanceof SweetUpdateConflictException);
+            assertTrue(e.getMessage().contains("sweet 1"));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SweetCatalogSnapshotTest {
+
+    @Mock
+    private SweetService sweetService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private CatalogVersion catalogVersion;
+    private SweetCatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogVersion = new CatalogVersion();
+        snapshot = newSnapshot(false);
+        Sweet sweet = new Sweet("Ladoo", "Indian", 20, 7);
+        sweet.setId(1L);
+        when(sweetService.getAllSweets()).thenReturn(List.of(sweet));
+    }
+
+    @Test
+    void testSameVersionReusesTheRenderedBytes() {
+        SweetCatalogSnapshot.Rendered first = snapshot.current();
+        SweetCatalogSnapshot.Rendered second = snapshot.current();
+
+        assertSame(first.json(), second.json());
+        assertTrue(new String(first.json(), StandardCharsets.UTF_8).contains("\"name\":\"Ladoo\""));
+        verify(sweetService, times(1)).getAllSweets();
+    }
+
+    @Test
+    void testWritesChangeTheVersionAndETag() {
+        String etag = catalogVersion.etag();
+        snapshot.current();
+
+        catalogVersion.onStockChange(StockChange.changed(1L));
+        assertNotEquals(etag, catalogVersion.etag());
+        snapshot.current();
+
+        catalogVersion.onCatalogChange(SweetCatalogEvent.deleted(1L));
+        SweetCatalogSnapshot.Rendered latest = snapshot.current();
+
+        assertEquals(2, latest.version());
+        assertEquals(catalogVersion.etag(), catalogVersion.etagOf(latest.version()));
+        assertNotEquals(catalogVersion.etagOf(latest.version()), catalogVersion.etagOf(latest.version(), "gz"));
+        verify(sweetService, times(3)).getAllSweets();
+    }
+
+    @Test
+    void testGzipCopyHoldsTheSameJson() throws Exception {
+        SweetCatalogSnapshot.Rendered rendered = snapshot.current();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(rendered.gzip()))) {
+            assertArrayEquals(rendered.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testEagerModeRebuildsOncePerBurstInTheBackground() {
+        snapshot = newSnapshot(true);
+        snapshot.warmUp();
+
+        for (int i = 0; i < 50; i++) {
+            catalogVersion.onStockChange(StockChange.changed(1L));
+            snapshot.onStockChange(StockChange.changed(1L));
+        }
+
+        // Requests keep getting the last snapshot until the scheduled rebuild ran
+        assertEquals(0, snapshot.current().version());
+        ArgumentCaptor<Runnable> rebuild = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(rebuild.capture(), any(Instant.class));
+
+        rebuild.getValue().run();
+
+        assertEquals(50, snapshot.current().version());
+        verify(sweetService, times(2)).getAllSweets();
+    }
+
+    private SweetCatalogSnapshot newSnapshot(boolean eager) {
+        return new SweetCatalogSnapshot(sweetService, catalogVersion, taskScheduler, new ObjectMapper(), eager, true, 200);
+    }
+}
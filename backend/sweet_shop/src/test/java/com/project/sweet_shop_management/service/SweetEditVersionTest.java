@@ -0,0 +1,75 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.service.search.SweetSearchIndex;
+import com.project.sweet_shop_management.service.stock.JpaStockEngine;
+import com.project.sweet_shop_management.service.stock.RestockWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Edits through the cached service against H2, without a surrounding test transaction, so
+ * purchases really commit and move the row's @Version.
+ */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SweetEditVersionTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    private SweetService sweetService;
+
+    private Long sweetId;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        sweetId = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, 10)).getId();
+
+        SweetServiceImpl delegate = new SweetServiceImpl(sweetRepository, new JpaStockEngine(sweetRepository),
+                new SweetSearchIndex(sweetRepository, false, 50), mock(ApplicationEventPublisher.class),
+                mock(RestockWriteBehind.class), new OptimisticRetry(new SimpleMeterRegistry(), 3, 0));
+        sweetService = new CachingSweetService(delegate, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testPurchaseDoesNotOutdateAnEditBasedOnTheCachedSweet() {
+        sweetService.getSweetById(sweetId);
+        sweetService.purchaseSweet(sweetId, 2);
+
+        Sweet read = sweetService.getSweetById(sweetId).orElseThrow();
+        assertEquals(8, read.getQuantity());
+        read.setPrice(65);
+
+        Sweet saved = sweetService.updateSweet(sweetId, read);
+
+        assertEquals(65, saved.getPrice());
+        assertEquals(1, saved.getEditVersion());
+    }
+
+    @Test
+    void testEditBasedOnAnOlderEditIsRejected() {
+        Sweet first = sweetService.getSweetById(sweetId).orElseThrow();
+        Sweet second = sweetService.getSweetById(sweetId).orElseThrow();
+        first.setPrice(65);
+        sweetService.updateSweet(sweetId, first);
+
+        second.setPrice(70);
+        assertThrows(SweetUpdateConflictException.class, () -> sweetService.updateSweet(sweetId, second));
+        assertEquals(65, sweetRepository.findById(sweetId).orElseThrow().getPrice());
+    }
+}
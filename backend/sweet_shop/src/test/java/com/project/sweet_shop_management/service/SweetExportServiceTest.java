@@ -0,0 +1,66 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SweetExportServiceTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SweetExportService exportService;
+    private Long katliId;
+    private Long ladooId;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        katliId = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, 100)).getId();
+        ladooId = sweetRepository.save(new Sweet("Ladoo, \"Motichoor\"", null, 30.5, 20)).getId();
+        exportService = new SweetExportService(jdbcTemplate, new ObjectMapper(), 1);
+    }
+
+    @Test
+    void testCsvExportQuotesFieldsWhenNeeded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(out, SweetExportService.Format.CSV, false);
+
+        assertEquals("id,name,category,price,quantity\n"
+                + katliId + ",Kaju Katli,Indian,60.0,100\n"
+                + ladooId + ",\"Ladoo, \"\"Motichoor\"\"\",,30.5,20\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testGzippedNdjsonExportHasOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(out, SweetExportService.Format.NDJSON, true);
+
+        String ndjson = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"id\":" + katliId + ",\"name\":\"Kaju Katli\",\"category\":\"Indian\",\"price\":60.0,\"quantity\":100}\n"
+                + "{\"id\":" + ladooId + ",\"name\":\"Ladoo, \\\"Motichoor\\\"\",\"category\":null,\"price\":30.5,\"quantity\":20}\n",
+                ndjson);
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.sweet_shop_management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.sweet_shop_management.model.ImportResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.service.stock.InMemoryStockEngine;
+import com.project.sweet_shop_management.service.stock.JpaStockEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Uses the H2 database from application.properties (MySQL mode) instead of a plain embedded one,
+ * because the upsert is MySQL syntax.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SweetImportServiceTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ApplicationEventPublisher events;
+    private SweetImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        events = mock(ApplicationEventPublisher.class);
+        importService = new SweetImportService(jdbcTemplate, new ObjectMapper(),
+                new JpaStockEngine(sweetRepository), events, 2, 100);
+    }
+
+    @Test
+    void testCsvImportUpsertsByNameAndReportsBadRows() throws Exception {
+        sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, 5));
+        String csv = """
+                quantity,name,price,category
+                100,"Kaju Katli",65.5,Indian
+                20,"Ladoo, Motichoor",30,Indian
+
+                -1,Barfi,25,Indian
+                8,Jalebi,abc,Indian
+                50,Dark Truffle,45,Chocolate
+                """;
+
+        ImportResult result = importService.importSweets(stream(csv), SweetImportService.Format.CSV);
+
+        assertEquals(5, result.rows());
+        assertEquals(3, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(5L, 6L), result.errors().stream().map(ImportResult.RowError::line).toList());
+        assertFalse(result.errorsTruncated());
+
+        Sweet katli = sweetRepository.findAll().stream().filter(s -> s.getName().equals("Kaju Katli")).findFirst().orElseThrow();
+        assertEquals(100, katli.getQuantity());
+        assertEquals(65.5, katli.getPrice());
+        assertEquals(3, sweetRepository.count());
+        verify(events).publishEvent(SweetCatalogEvent.reloaded());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRowByRow() throws Exception {
+        String ndjson = "{\"name\":\"Rasgulla\",\"category\":\"Indian\",\"price\":40,\"quantity\":80}\n"
+                + "{\"name\":\"Peda\",\"category\":\"" + "x".repeat(300) + "\",\"price\":20,\"quantity\":10}\n"
+                + "not json\n";
+
+        ImportResult result = importService.importSweets(stream(ndjson), SweetImportService.Format.NDJSON);
+
+        assertEquals(3, result.rows());
+        assertEquals(1, result.imported());
+        assertEquals(List.of(2L, 3L), result.errors().stream().map(ImportResult.RowError::line).toList());
+        assertEquals(List.of("Rasgulla"), sweetRepository.findAll().stream().map(Sweet::getName).toList());
+    }
+
+    @Test
+    void testImportIsRefusedWhileStockIsHeldInMemory() {
+        SweetImportService memoryImport = new SweetImportService(jdbcTemplate, new ObjectMapper(),
+                new InMemoryStockEngine(sweetRepository), events, 2, 100);
+
+        assertThrows(RuntimeException.class,
+                () -> memoryImport.importSweets(stream("name,price,quantity\nPeda,20,1\n"), SweetImportService.Format.CSV));
+        assertEquals(0, sweetRepository.count());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
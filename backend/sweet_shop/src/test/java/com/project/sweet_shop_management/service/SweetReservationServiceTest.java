@@ -0,0 +1,109 @@
+package com.project.sweet_shop_management.service;
+
+import com.project.sweet_shop_management.model.Reservation;
+import com.project.sweet_shop_management.service.stock.RestockWriteBehind;
+import com.project.sweet_shop_management.service.stock.StockEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SweetReservationServiceTest {
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private RestockWriteBehind restockQueue;
+
+    @TempDir
+    private Path dir;
+
+    private SweetReservationService reservations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reservations = newService();
+        when(stockEngine.tryPurchase(1L, 3)).thenReturn(true);
+    }
+
+    @Test
+    void testConfirmKeepsStockTaken() {
+        Reservation hold = reservations.reserve(1L, 3, null);
+
+        assertNotNull(hold);
+        assertTrue(reservations.confirm(hold.holdId()));
+        assertFalse(reservations.confirm(hold.holdId()));
+        assertFalse(reservations.cancel(hold.holdId()));
+        verify(stockEngine).tryPurchase(1L, 3);
+        verifyNoInteractions(restockQueue);
+    }
+
+    @Test
+    void testCancelReturnsStock() {
+        Reservation hold = reservations.reserve(1L, 3, null);
+
+        assertTrue(reservations.cancel(hold.holdId()));
+        assertFalse(reservations.confirm(hold.holdId()));
+        verify(restockQueue).accept(1L, 3);
+    }
+
+    @Test
+    void testReserveWithoutStockReturnsNull() {
+        when(stockEngine.tryPurchase(1L, 5)).thenReturn(false);
+
+        assertNull(reservations.reserve(1L, 5, null));
+        assertEquals(0, reservations.activeCount());
+    }
+
+    @Test
+    void testSweepReturnsOnlyExpiredHolds() throws Exception {
+        Reservation shortHold = reservations.reserve(1L, 3, Duration.ofMillis(10));
+        Reservation longHold = reservations.reserve(1L, 3, Duration.ofMinutes(5));
+        Thread.sleep(30);
+
+        reservations.sweep();
+
+        verify(restockQueue, times(1)).accept(1L, 3);
+        assertFalse(reservations.confirm(shortHold.holdId()));
+        assertTrue(reservations.confirm(longHold.holdId()));
+    }
+
+    @Test
+    void testHoldsSurviveRestartThroughSnapshot() throws Exception {
+        Reservation kept = reservations.reserve(1L, 3, Duration.ofMinutes(5));
+        reservations.reserve(1L, 3, Duration.ofMillis(10));
+        reservations.persist();
+        Thread.sleep(30);
+
+        SweetReservationService restarted = newService();
+        restarted.load();
+
+        // The hold that expired while "down" went straight back into stock
+        verify(restockQueue, times(1)).accept(1L, 3);
+        assertEquals(1, restarted.activeCount());
+        assertTrue(restarted.confirm(kept.holdId()));
+    }
+
+    @Test
+    void testTtlAboveMaximumIsRejected() {
+        assertThrows(RuntimeException.class, () -> reservations.reserve(1L, 3, Duration.ofHours(2)));
+        verifyNoInteractions(stockEngine);
+    }
+
+    private SweetReservationService newService() {
+        return new SweetReservationService(stockEngine, restockQueue,
+                new OptimisticRetry(new SimpleMeterRegistry(), 3, 0), mock(ApplicationEventPublisher.class),
+                dir.resolve("holds.snapshot"), Duration.ofMinutes(10), Duration.ofMinutes(30));
+    }
+}
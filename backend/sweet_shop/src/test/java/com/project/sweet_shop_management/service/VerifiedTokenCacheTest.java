@@ -0,0 +1,48 @@
+package com.project.sweet_shop_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private JWTService jwtService;
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = Mockito.spy(new JWTService());
+        tokenCache = new VerifiedTokenCache(jwtService, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void testRepeatTokenIsVerifiedOnce() {
+        String token = jwtService.generateToken("john");
+
+        assertEquals("john", tokenCache.verify(token).orElseThrow().subject());
+        assertEquals("john", tokenCache.verify(token).orElseThrow().subject());
+
+        verify(jwtService, times(1)).verify(token);
+        assertEquals(1, tokenCache.size());
+    }
+
+    @Test
+    void testKeyRotationInvalidatesCachedTokens() {
+        String token = jwtService.generateToken("john");
+        assertTrue(tokenCache.verify(token).isPresent());
+
+        jwtService.rotateKey();
+
+        assertTrue(tokenCache.verify(token).isEmpty());
+    }
+
+    @Test
+    void testInvalidTokensAreNotCached() {
+        assertTrue(tokenCache.verify("not-a-jwt").isEmpty());
+        assertEquals(0, tokenCache.size());
+    }
+}
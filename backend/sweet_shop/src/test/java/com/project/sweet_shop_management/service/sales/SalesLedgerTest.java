@@ -0,0 +1,122 @@
+package com.project.sweet_shop_management.service.sales;
+
+import com.project.sweet_shop_management.model.SalesStats;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSold;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs against H2 without a surrounding test transaction, so flushes really commit.
+ */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesLedgerTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Sweet kajuKatli;
+    private Sweet truffle;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from sales");
+        sweetRepository.deleteAll();
+        kajuKatli = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, 100));
+        truffle = sweetRepository.save(new Sweet("Dark Truffle", "Chocolate", 45.5, 100));
+    }
+
+    @Test
+    void testSalesAreCountedRightAwayAndWrittenInOneBatch() {
+        SalesLedger ledger = newLedger();
+
+        ledger.onSweetSold(new SweetSold(kajuKatli.getId(), 2));
+        ledger.onSweetSold(new SweetSold(truffle.getId(), 3));
+        ledger.onSweetSold(new SweetSold(kajuKatli.getId(), 1));
+
+        SalesStats stats = ledger.stats(10, 60, 24);
+        assertEquals(6, stats.units());
+        assertEquals(316.5, stats.revenue());
+        assertEquals(List.of(
+                new SalesStats.SweetSales(kajuKatli.getId(), "Kaju Katli", 3, 180.0),
+                new SalesStats.SweetSales(truffle.getId(), "Dark Truffle", 3, 136.5)), stats.topSellers());
+        assertEquals(List.of(
+                new SalesStats.WindowSales("60m", 6, 316.5),
+                new SalesStats.WindowSales("24h", 6, 316.5)), stats.windows());
+        assertEquals(0, countSales());
+
+        ledger.flush();
+
+        assertEquals(0, ledger.pendingCount());
+        assertEquals(3, countSales());
+    }
+
+    @Test
+    void testSaleUsesPriceAndCategoryAtSaleTime() {
+        SalesLedger ledger = newLedger();
+        ledger.onSweetSold(new SweetSold(kajuKatli.getId(), 1));
+
+        kajuKatli.setPrice(80);
+        kajuKatli.setCategory("Festive");
+        ledger.onCatalogChange(SweetCatalogEvent.saved(kajuKatli));
+        ledger.onSweetSold(new SweetSold(kajuKatli.getId(), 1));
+
+        SalesStats stats = ledger.stats(1, 60, 24);
+        assertEquals(140.0, stats.revenue());
+        assertEquals(List.of(
+                new SalesStats.CategorySales("Festive", 1, 80.0),
+                new SalesStats.CategorySales("Indian", 1, 60.0)), stats.categories());
+    }
+
+    @Test
+    void testTotalsAreRebuiltFromTheLedger() {
+        SalesLedger first = newLedger();
+        first.onSweetSold(new SweetSold(truffle.getId(), 4));
+        first.onSweetSold(new SweetSold(kajuKatli.getId(), 1));
+        first.close();
+
+        SalesLedger restarted = newLedger();
+        restarted.load();
+
+        SalesStats stats = restarted.stats(1, 60, 24);
+        assertEquals(5, stats.units());
+        assertEquals(242.0, stats.revenue());
+        assertEquals(List.of(new SalesStats.SweetSales(truffle.getId(), "Dark Truffle", 4, 182.0)), stats.topSellers());
+        assertEquals(new SalesStats.WindowSales("60m", 5, 242.0), stats.windows().get(0));
+    }
+
+    @Test
+    void testSaleOfUnknownSweetIsDropped() {
+        SalesLedger ledger = newLedger();
+
+        ledger.onSweetSold(new SweetSold(-1L, 1));
+
+        assertEquals(0, ledger.pendingCount());
+        assertEquals(0, ledger.stats(10, 60, 24).units());
+    }
+
+    private SalesLedger newLedger() {
+        return new SalesLedger(jdbcTemplate, sweetRepository, mock(TaskScheduler.class), 1000, 1440, 720);
+    }
+
+    private int countSales() {
+        return jdbcTemplate.queryForObject("select count(*) from sales", Integer.class);
+    }
+}
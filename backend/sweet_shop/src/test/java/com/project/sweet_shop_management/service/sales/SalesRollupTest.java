@@ -0,0 +1,64 @@
+package com.project.sweet_shop_management.service.sales;
+
+import com.project.sweet_shop_management.model.SalesStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesRollupTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Test
+    void testTopSellersFollowRunningTotals() {
+        SalesRollup rollup = new SalesRollup(60, 24);
+        for (long id = 1; id <= 100; id++) {
+            rollup.describe(id, "Sweet " + id, "C" + id % 3, 1);
+            rollup.record(id, (int) id, 0);
+        }
+        // Sweet 1 overtakes everyone
+        rollup.record(1, 500, 0);
+
+        List<Long> top = rollup.stats(3, 0, 60, 24).topSellers().stream().map(SalesStats.SweetSales::sweetId).toList();
+
+        assertEquals(List.of(1L, 100L, 99L), top);
+    }
+
+    @Test
+    void testWindowsOnlyCountRecentBuckets() {
+        SalesRollup rollup = new SalesRollup(60, 24);
+        rollup.describe(1, "Barfi", "Indian", 2);
+        long start = 1_000 * HOUR;
+
+        rollup.record(1, 1, start);
+        rollup.record(1, 2, start + 30 * MINUTE);
+        rollup.record(1, 4, start + 59 * MINUTE);
+
+        long now = start + 59 * MINUTE;
+        assertEquals(new SalesStats.WindowSales("1m", 4, 8.0), rollup.stats(0, now, 1, 24).windows().get(0));
+        assertEquals(new SalesStats.WindowSales("30m", 6, 12.0), rollup.stats(0, now, 30, 24).windows().get(0));
+        assertEquals(new SalesStats.WindowSales("60m", 7, 14.0), rollup.stats(0, now, 60, 24).windows().get(0));
+
+        // Two hours later the minute ring has rolled over completely, the hour ring has not
+        SalesStats later = rollup.stats(0, now + 2 * HOUR, 60, 3);
+        assertEquals(new SalesStats.WindowSales("60m", 0, 0.0), later.windows().get(0));
+        assertEquals(new SalesStats.WindowSales("3h", 7, 14.0), later.windows().get(1));
+        assertEquals(7, later.units());
+    }
+
+    @Test
+    void testWindowWrapsAroundTheRing() {
+        SalesRollup rollup = new SalesRollup(10, 24);
+        rollup.describe(1, "Barfi", "Indian", 1);
+        for (int minute = 0; minute < 25; minute++) {
+            rollup.record(1, 1, minute * MINUTE);
+        }
+
+        // Minutes 18..24 sit in ring slots 8, 9, 0..4
+        assertEquals(7, rollup.stats(0, 24 * MINUTE, 7, 1).windows().get(0).units());
+        assertEquals(10, rollup.stats(0, 24 * MINUTE, 100, 1).windows().get(0).units());
+    }
+}
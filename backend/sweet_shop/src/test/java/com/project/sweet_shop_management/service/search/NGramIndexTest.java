@@ -0,0 +1,68 @@
+package com.project.sweet_shop_management.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramIndexTest {
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NGramIndex();
+        index.put(1L, "Gulab Jamun");
+        index.put(2L, "Rasgulla");
+        index.put(3L, "Kaju Katli");
+        index.put(4L, "Gulab");
+    }
+
+    @Test
+    void testSubstringMatchesAnywhereAndRanksBestFirst() {
+        // exact "gulab" first, then the longer name starting with it; "rasgulla" only contains "gul"
+        assertEquals(List.of(4L, 1L), index.search("GULAB", 10));
+        assertEquals(List.of(4L, 1L, 2L), index.search("gul", 10));
+    }
+
+    @Test
+    void testLimitKeepsTheBestHits() {
+        assertEquals(List.of(4L, 1L), index.search("gul", 2));
+        assertEquals(List.of(), index.search("gul", 0));
+    }
+
+    @Test
+    void testLongQueryIsConfirmedAgainstText() {
+        // every trigram of "jamun gulab" exists in the index, but the text does not
+        assertEquals(List.of(), index.search("jamun gulab", 10));
+        assertEquals(List.of(1L), index.search("ab jam", 10));
+    }
+
+    @Test
+    void testShortQueryMatchesAnywhereLikeLonger() {
+        assertEquals(List.of(3L), index.search("ka", 10));
+        assertEquals(List.of(4L, 1L, 2L), index.search("g", 10));
+        // inside words only: ties go to the shorter text
+        assertEquals(List.of(4L, 2L, 1L), index.search("ul", 10));
+    }
+
+    @Test
+    void testMatchingReturnsEveryHit() {
+        assertEquals(Set.of(1L, 2L, 4L), index.matching("gul"));
+        assertEquals(Set.of(), index.matching("  "));
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        index.put(2L, "Rasmalai");
+        assertEquals(List.of(4L, 1L), index.search("gul", 10));
+        assertEquals(List.of(2L), index.search("malai", 10));
+
+        index.remove(4L);
+        assertEquals(List.of(1L), index.search("gulab", 10));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.sweet_shop_management.service.search;
+
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamePrefixIndexTest {
+
+    @Test
+    void testSuggestsByNameAndWordPrefix() {
+        NamePrefixIndex index = new NamePrefixIndex.Builder()
+                .add(1L, "Gulab Jamun")
+                .add(2L, "Rasgulla")
+                .add(3L, "Jalebi")
+                .build();
+
+        assertEquals(List.of(new SweetSuggestion(3L, "Jalebi"), new SweetSuggestion(1L, "Gulab Jamun")),
+                index.suggest("Ja", 10));
+        assertEquals(List.of(new SweetSuggestion(1L, "Gulab Jamun")), index.suggest("gul", 10));
+        assertEquals(List.of(new SweetSuggestion(3L, "Jalebi")), index.suggest("j", 1));
+        assertEquals(List.of(), index.suggest("x", 10));
+    }
+
+    @Test
+    void testPutAndRemoveKeepIndexInSync() {
+        NamePrefixIndex index = new NamePrefixIndex();
+        index.put(1L, "Gulab Jamun");
+        index.put(2L, "Kaju Katli");
+
+        index.put(1L, "Kalakand");
+        assertEquals(List.of(new SweetSuggestion(2L, "Kaju Katli"), new SweetSuggestion(1L, "Kalakand")),
+                index.suggest("ka", 10));
+        assertEquals(List.of(), index.suggest("jamun", 10));
+
+        index.remove(2L);
+        assertEquals(List.of(new SweetSuggestion(1L, "Kalakand")), index.suggest("ka", 10));
+        assertNull(index.nameOf(2L));
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.sweet_shop_management.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    @Test
+    void testRangeIsInclusiveAndInPriceOrder() {
+        PriceIndex index = new PriceIndex();
+        index.put(1L, 50);
+        index.put(2L, 40);
+        index.put(3L, 45);
+        index.put(4L, 40);
+
+        assertArrayEquals(new long[]{2L, 4L, 3L}, index.idsInRange(40, 45));
+        assertArrayEquals(new long[]{1L}, index.idsInRange(46, 100));
+        assertArrayEquals(new long[0], index.idsInRange(60, 70));
+        assertArrayEquals(new long[0], index.idsInRange(50, 40));
+    }
+
+    @Test
+    void testPutMovesEntryAndRemoveDropsIt() {
+        PriceIndex index = new PriceIndex();
+        index.put(1L, 50);
+        index.put(2L, 40);
+
+        index.put(1L, 10);
+        assertArrayEquals(new long[]{1L, 2L}, index.idsInRange(0, 100));
+        assertEquals(OptionalDouble.of(10), index.priceOf(1L));
+
+        index.remove(2L);
+        index.remove(99L);
+        assertArrayEquals(new long[]{1L}, index.idsInRange(0, 100));
+        assertEquals(1, index.size());
+        assertTrue(index.priceOf(2L).isEmpty());
+    }
+
+    @Test
+    void testBuilderMatchesIncrementalInserts() {
+        Random random = new Random(42);
+        PriceIndex.Builder builder = new PriceIndex.Builder();
+        PriceIndex incremental = new PriceIndex();
+        for (long id = 1; id <= 5000; id++) {
+            // Few distinct prices, so many ties are broken by id
+            double price = random.nextInt(300) / 2.0;
+            builder.add(id, price);
+            incremental.put(id, price);
+        }
+        PriceIndex built = builder.build();
+
+        assertArrayEquals(incremental.idsInRange(0, 150), built.idsInRange(0, 150));
+        assertArrayEquals(incremental.idsInRange(20, 21.5), built.idsInRange(20, 21.5));
+
+        built.put(5001L, 20.5);
+        assertTrue(Arrays.stream(built.idsInRange(20.5, 20.5)).anyMatch(id -> id == 5001L));
+    }
+}
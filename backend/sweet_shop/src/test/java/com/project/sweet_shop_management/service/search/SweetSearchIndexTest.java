@@ -0,0 +1,138 @@
+package com.project.sweet_shop_management.service.search;
+
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.model.SweetSearchCriteria;
+import com.project.sweet_shop_management.model.SweetSuggestion;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SweetSearchIndexTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    private SweetSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new SweetSearchIndex(sweetRepository, true, 50);
+    }
+
+    @Test
+    void testLoadsCatalogAndFollowsEvents() {
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(sweet(1L, "Gulab Jamun", "Indian"), sweet(2L, "Dark Truffle", "Chocolate")));
+        assertFalse(index.isReady());
+
+        index.load();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), index.searchByName("jamun"));
+        assertEquals(List.of(2L), index.searchByCategory("choc"));
+        assertArrayEquals(new long[]{1L, 2L}, index.searchByPriceRange(0, 100));
+        assertEquals(List.of(new SweetSuggestion(2L, "Dark Truffle")), index.suggest("tru", 5));
+
+        Sweet barfi = sweet(3L, "Jamun Barfi", "Indian");
+        barfi.setPrice(20);
+        index.onCatalogChange(SweetCatalogEvent.saved(barfi));
+        index.onCatalogChange(SweetCatalogEvent.deleted(1L));
+
+        assertEquals(List.of(3L), index.searchByName("jamun"));
+        assertEquals(List.of(3L), index.searchByCategory("indian"));
+        assertArrayEquals(new long[]{2L, 3L}, index.searchByPriceRange(0, 100));
+        assertEquals(List.of(new SweetSuggestion(3L, "Jamun Barfi")), index.suggest("jam", 5));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testCombinedSearchReturnsAllMatchesInIdOrder() {
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(sweet(1L, "Gulab Jamun", "Indian"), sweet(2L, "Rasgulla", "Indian"),
+                        sweet(3L, "Gulab Truffle", "Chocolate")));
+        index.load();
+
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.search(new SweetSearchCriteria("gul", null, null, null)));
+        assertArrayEquals(new long[]{1L, 2L}, index.search(new SweetSearchCriteria("u", "indi", null, null)));
+        assertArrayEquals(new long[]{2L, 3L}, index.search(new SweetSearchCriteria("gul", null, 15.0, null)));
+        assertArrayEquals(new long[]{1L, 2L}, index.search(new SweetSearchCriteria(null, null, null, 20.0)));
+        assertArrayEquals(new long[0], index.search(new SweetSearchCriteria("gul", "chocolate", null, 25.0)));
+    }
+
+    @Test
+    void testNameSearchIsRankedAndCapped() {
+        SweetSearchIndex capped = new SweetSearchIndex(sweetRepository, true, 2);
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(sweet(1L, "Rasgulla", "Indian"), sweet(2L, "Gulab Jamun", "Indian"),
+                        sweet(3L, "Gulab", "Indian")));
+        capped.load();
+
+        assertEquals(List.of(3L, 2L), capped.searchByName("gul"));
+        assertEquals(2, capped.searchByCategory("indian").size());
+    }
+
+    @Test
+    void testSweetDeletedWhileRebuildingIsNotBroughtBack() {
+        List<Sweet> firstBatch = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            firstBatch.add(sweet(id, "Sweet " + id, "Indian"));
+        }
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(firstBatch);
+        // Sweet 1 is deleted after the rebuild has read its row
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(1000L), any(Limit.class))).thenAnswer(inv -> {
+            index.onCatalogChange(SweetCatalogEvent.deleted(1L));
+            return List.of();
+        });
+
+        index.load();
+
+        assertEquals(999, index.size());
+        assertEquals(0, index.searchByPriceRange(0, 15).length);
+        assertTrue(index.suggest("sweet 1", 2000).stream().noneMatch(s -> s.id().equals(1L)));
+    }
+
+    @Test
+    void testRebuildAskedForDuringARebuildRunsAfterIt() {
+        when(sweetRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenAnswer(inv -> {
+                    // e.g. a RELOADED event after an import, while the scheduled rebuild reads
+                    index.onCatalogChange(SweetCatalogEvent.reloaded());
+                    return List.of(sweet(1L, "Gulab Jamun", "Indian"));
+                })
+                .thenReturn(List.of(sweet(1L, "Gulab Jamun", "Indian"), sweet(2L, "Rasgulla", "Indian")));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        verify(sweetRepository, times(2)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+    }
+
+    @Test
+    void testDisabledIndexNeverLoads() {
+        SweetSearchIndex disabled = new SweetSearchIndex(sweetRepository, false, 50);
+
+        disabled.load();
+
+        assertFalse(disabled.isReady());
+        verifyNoInteractions(sweetRepository);
+    }
+
+    private static Sweet sweet(Long id, String name, String category) {
+        Sweet sweet = new Sweet(name, category, 10 * id, 5);
+        sweet.setId(id);
+        return sweet;
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against H2 without a surrounding test transaction, so every purchase commits
+ * on its own connection just like it would against MySQL.
+ */
+@DataJpaTest(showSql = false, properties = "sweetshop.stock.engine=conditional")
+@Import(ConditionalUpdateStockEngine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalUpdateStockEngineTest {
+
+    private static final int INITIAL_STOCK = 1500;
+    private static final int PURCHASES = 2000;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private ConditionalUpdateStockEngine stockEngine;
+
+    private Long sweetId;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        sweetId = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, INITIAL_STOCK)).getId();
+    }
+
+    @Test
+    void testParallelPurchasesLeaveExactStock() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < PURCHASES; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return stockEngine.tryPurchase(sweetId, 1);
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        int sold = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) sold++;
+        }
+        assertEquals(INITIAL_STOCK, sold);
+        assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testParallelPurchasesAndRestocksBalance() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(pool.submit(() -> stockEngine.purchase(sweetId, 2)));
+            results.add(pool.submit(() -> stockEngine.restock(sweetId, 1)));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> result : results) {
+            result.get();
+        }
+
+        assertEquals(INITIAL_STOCK - 500, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testPurchaseReportsMissingSweetAndShortStock() {
+        assertFalse(stockEngine.tryPurchase(sweetId, INITIAL_STOCK + 1));
+
+        RuntimeException notFound = assertThrows(RuntimeException.class, () -> stockEngine.tryPurchase(-1L, 1));
+        assertEquals("Sweet not found", notFound.getMessage());
+
+        RuntimeException notEnough = assertThrows(RuntimeException.class,
+                () -> stockEngine.purchase(sweetId, INITIAL_STOCK + 1));
+        assertEquals("Not enough stock available", notEnough.getMessage());
+
+        assertEquals(INITIAL_STOCK - 5, stockEngine.purchase(sweetId, 5).getQuantity());
+    }
+
+    @Test
+    void testBatchPurchaseIsAllOrNothing() {
+        Long otherId = sweetRepository.save(new Sweet("Rasgulla", "Indian", 40, 3)).getId();
+
+        List<PurchaseLineResult> failed = stockEngine.purchaseAll(List.of(
+                new PurchaseLine(sweetId, 10), new PurchaseLine(otherId, 5)));
+        assertEquals(PurchaseLineResult.Status.ROLLED_BACK, failed.get(0).getStatus());
+        assertEquals(PurchaseLineResult.Status.INSUFFICIENT_STOCK, failed.get(1).getStatus());
+        assertEquals(INITIAL_STOCK, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+
+        List<PurchaseLineResult> bought = stockEngine.purchaseAll(List.of(
+                new PurchaseLine(sweetId, 10), new PurchaseLine(otherId, 3)));
+        assertTrue(bought.stream().allMatch(PurchaseLineResult::isPurchased));
+        assertEquals(INITIAL_STOCK - 10, bought.get(0).getRemainingQuantity());
+        assertEquals(0, sweetRepository.findById(otherId).orElseThrow().getQuantity());
+    }
+}
@@ -0,0 +1,113 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InMemoryStockEngineTest {
+
+    private SweetRepository sweetRepository;
+    private InMemoryStockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository = Mockito.mock(SweetRepository.class);
+        stockEngine = new InMemoryStockEngine(sweetRepository);
+
+        Sweet sweet = new Sweet("Gulab Jamun", "Indian", 50, 100);
+        sweet.setId(1L);
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet));
+    }
+
+    @Test
+    void testPurchaseAndRestockDoNotWriteSynchronously() {
+        assertEquals(80, stockEngine.purchase(1L, 20).getQuantity());
+        assertEquals(130, stockEngine.restock(1L, 50).getQuantity());
+
+        verify(sweetRepository, times(1)).findById(1L);
+        verify(sweetRepository, never()).save(any(Sweet.class));
+        verify(sweetRepository, never()).updateQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    void testSavingASweetKeepsItsCounter() {
+        stockEngine.purchase(1L, 20);
+
+        // e.g. a PUT that changed the price, with the quantity read before the purchase
+        Sweet edited = new Sweet("Gulab Jamun", "Indian", 55, 100);
+        edited.setId(1L);
+        stockEngine.onSweetSaved(edited);
+
+        Sweet after = stockEngine.purchase(1L, 1);
+        assertEquals(79, after.getQuantity());
+        assertEquals(55, after.getPrice());
+    }
+
+    @Test
+    void testPurchaseNotEnoughStock() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> stockEngine.purchase(1L, 101));
+        assertEquals("Not enough stock available", exception.getMessage());
+    }
+
+    @Test
+    void testConcurrentPurchasesNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            results.add(pool.submit(() -> {
+                try {
+                    stockEngine.purchase(1L, 1);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        int sold = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) sold++;
+        }
+        assertEquals(100, sold);
+
+        stockEngine.flush();
+        verify(sweetRepository, times(1)).updateQuantity(1L, 0);
+    }
+
+    @Test
+    void testDeletedSweetIsNotFlushed() {
+        stockEngine.purchase(1L, 1);
+        stockEngine.onSweetDeleted(1L);
+        stockEngine.flush();
+        verify(sweetRepository, never()).updateQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    void testBatchPurchaseGivesBackStockWhenALineFails() {
+        when(sweetRepository.findById(2L)).thenReturn(Optional.empty());
+
+        List<PurchaseLineResult> results = stockEngine.purchaseAll(List.of(
+                new PurchaseLine(1L, 30), new PurchaseLine(2L, 1)));
+        assertEquals(PurchaseLineResult.Status.ROLLED_BACK, results.get(0).getStatus());
+        assertEquals(PurchaseLineResult.Status.NOT_FOUND, results.get(1).getStatus());
+
+        assertEquals(99, stockEngine.purchase(1L, 1).getQuantity());
+    }
+}
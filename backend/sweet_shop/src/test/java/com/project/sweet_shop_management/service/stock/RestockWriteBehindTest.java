@@ -0,0 +1,141 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.RestockFlush;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.RestockFlushRepository;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs against H2 without a surrounding test transaction, so flushes really commit.
+ */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RestockWriteBehindTest {
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private RestockFlushRepository flushRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path journalDir;
+
+    private Long sweetId;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository.deleteAll();
+        flushRepository.deleteAll();
+        sweetId = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, 10)).getId();
+    }
+
+    @Test
+    void testDeltasAreCoalescedAndFlushedInOneSegment() throws Exception {
+        RestockWriteBehind queue = newQueue();
+
+        queue.accept(sweetId, 5);
+        queue.accept(sweetId, 7);
+        queue.accept(9999L, 3);
+        assertEquals(2, queue.pendingCount());
+        assertEquals(10, quantity());
+
+        queue.flush();
+
+        assertEquals(22, quantity());
+        assertEquals(0, queue.pendingCount());
+        assertTrue(flushRepository.existsById(1L));
+        assertFalse(new RestockJournal(journalDir, false).segments().contains(1L));
+        queue.close();
+    }
+
+    @Test
+    void testSegmentsLeftByACrashAreReplayedOnce() throws Exception {
+        RestockWriteBehind crashed = newQueue();
+        crashed.accept(sweetId, 4);
+        // no flush: the process "dies" with the delta only in the journal
+
+        // segment 7 was committed before the crash but its file was not deleted yet
+        RestockJournal journal = new RestockJournal(journalDir, false);
+        journal.open(7);
+        journal.append(sweetId, 100);
+        journal.close();
+        flushRepository.save(new RestockFlush(7L, Instant.now()));
+
+        RestockWriteBehind restarted = newQueue();
+
+        assertEquals(14, quantity());
+        assertEquals(1, journal.segments().size(), "only the new active segment is left");
+        restarted.close();
+    }
+
+    @Test
+    void testNumberingContinuesAfterTheLastAppliedSegment() throws Exception {
+        // segment 3 was applied, then the journal directory was lost
+        flushRepository.save(new RestockFlush(3L, Instant.now()));
+
+        RestockWriteBehind queue = newQueue();
+        queue.accept(sweetId, 6);
+        queue.flush();
+
+        assertEquals(16, quantity());
+        assertTrue(flushRepository.existsById(4L));
+        queue.close();
+    }
+
+    @Test
+    void testCommittedSegmentIsNotAppliedAgainWhenTheFlushFailsAfterwards() throws Exception {
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        doThrow(new RuntimeException("listener failed")).doNothing().when(events).publishEvent(any(Object.class));
+        RestockWriteBehind queue = newQueue(events);
+
+        queue.accept(sweetId, 5);
+        assertThrows(RuntimeException.class, queue::flush);
+        queue.flush();
+
+        assertEquals(15, quantity());
+        assertTrue(new RestockJournal(journalDir, false).segments().stream().noneMatch(segment -> segment == 1L));
+        queue.close();
+    }
+
+    private RestockWriteBehind newQueue() throws Exception {
+        return newQueue(mock(ApplicationEventPublisher.class));
+    }
+
+    private RestockWriteBehind newQueue(ApplicationEventPublisher events) throws Exception {
+        RestockWriteBehind queue = new RestockWriteBehind(jdbcTemplate, transactionTemplate, flushRepository,
+                new JpaStockEngine(sweetRepository), mock(TaskScheduler.class),
+                events, journalDir, false, 1000);
+        queue.recover();
+        return queue;
+    }
+
+    private int quantity() {
+        return sweetRepository.findById(sweetId).orElseThrow().getQuantity();
+    }
+}
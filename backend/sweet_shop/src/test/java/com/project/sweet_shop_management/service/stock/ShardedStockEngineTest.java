@@ -0,0 +1,192 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.PurchaseLine;
+import com.project.sweet_shop_management.model.PurchaseLineResult;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import com.project.sweet_shop_management.repository.SweetStockShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against H2 without a surrounding test transaction, so every purchase commits
+ * on its own connection just like it would against MySQL.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "sweetshop.stock.engine=conditional",
+        "sweetshop.stock.sharding.enabled=true"})
+@Import({ConditionalUpdateStockEngine.class, ShardedStockEngine.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedStockEngineTest {
+
+    private static final int INITIAL_STOCK = 1000;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private SweetStockShardRepository shardRepository;
+
+    @Autowired
+    private ShardedStockEngine stockEngine;
+
+    private Long sweetId;
+
+    @BeforeEach
+    void setUp() {
+        shardRepository.deleteAll();
+        sweetRepository.deleteAll();
+        sweetId = sweetRepository.save(new Sweet("Kaju Katli", "Indian", 60, INITIAL_STOCK)).getId();
+    }
+
+    @Test
+    void testShardingMovesStockIntoShards() {
+        stockEngine.setShardCount(sweetId, 4);
+
+        assertTrue(stockEngine.isSharded(sweetId));
+        assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+        assertEquals(4, shardRepository.findAll().size());
+        assertEquals(INITIAL_STOCK, quantity());
+    }
+
+    @Test
+    void testParallelPurchasesLeaveExactStock() throws Exception {
+        stockEngine.setShardCount(sweetId, 8);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return stockEngine.tryPurchase(sweetId, 1);
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        int sold = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) sold++;
+        }
+        assertEquals(INITIAL_STOCK, sold);
+        assertEquals(0, quantity());
+    }
+
+    @Test
+    void testPurchaseLargerThanAnyShardTakesFromSeveral() {
+        stockEngine.setShardCount(sweetId, 4);
+
+        Sweet sweet = stockEngine.purchase(sweetId, 600);
+
+        assertEquals(400, sweet.getQuantity());
+        assertEquals(400, quantity());
+        assertFalse(stockEngine.tryPurchase(sweetId, 401));
+    }
+
+    @Test
+    void testRowStockStillCountsAfterSharding() {
+        stockEngine.setShardCount(sweetId, 4);
+        // Write-behind restocks and imports update the sweet's own row
+        sweetRepository.incrementStock(sweetId, 50);
+
+        assertEquals(INITIAL_STOCK + 50, quantity());
+        assertTrue(stockEngine.tryPurchase(sweetId, INITIAL_STOCK + 50));
+        assertEquals(0, quantity());
+    }
+
+    @Test
+    void testRestockIsSplitOverShards() {
+        stockEngine.setShardCount(sweetId, 4);
+
+        assertEquals(INITIAL_STOCK + 10, stockEngine.restock(sweetId, 10).getQuantity());
+        assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testBatchWithShardedLineRollsBackTogether() {
+        Long other = sweetRepository.save(new Sweet("Ladoo", "Indian", 20, 5)).getId();
+        stockEngine.setShardCount(sweetId, 4);
+
+        List<PurchaseLineResult> results = stockEngine.purchaseAll(List.of(
+                new PurchaseLine(sweetId, 10), new PurchaseLine(other, 6)));
+
+        assertEquals(PurchaseLineResult.Status.ROLLED_BACK, results.get(0).getStatus());
+        assertEquals(PurchaseLineResult.Status.INSUFFICIENT_STOCK, results.get(1).getStatus());
+        assertEquals(INITIAL_STOCK, quantity());
+        assertEquals(5, sweetRepository.findById(other).orElseThrow().getQuantity());
+
+        results = stockEngine.purchaseAll(List.of(new PurchaseLine(sweetId, 10), new PurchaseLine(other, 5)));
+        assertTrue(BatchResults.allPurchased(results));
+        assertEquals(INITIAL_STOCK - 10, results.get(0).getRemainingQuantity());
+        assertEquals(INITIAL_STOCK - 10, quantity());
+        assertEquals(0, sweetRepository.findById(other).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testCartNeverWritesTheTotalIntoTheRow() {
+        stockEngine.setShardCount(sweetId, 4);
+
+        List<PurchaseLineResult> results = stockEngine.purchaseAll(List.of(new PurchaseLine(sweetId, 10)));
+
+        assertEquals(INITIAL_STOCK - 10, results.get(0).getRemainingQuantity());
+        assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+        assertEquals(INITIAL_STOCK - 10, quantity());
+    }
+
+    @Test
+    void testCartTakesFromSeveralShards() {
+        stockEngine.setShardCount(sweetId, 4);
+
+        List<PurchaseLineResult> results = stockEngine.purchaseAll(List.of(new PurchaseLine(sweetId, 600)));
+
+        assertTrue(BatchResults.allPurchased(results));
+        assertEquals(400, quantity());
+    }
+
+    @Test
+    void testImportedQuantityReplacesShards() {
+        stockEngine.setShardCount(sweetId, 4);
+        // What the import's upsert does to the row
+        sweetRepository.updateQuantity(sweetId, 70);
+
+        stockEngine.onQuantitiesImported(List.of("Kaju Katli"));
+
+        assertFalse(stockEngine.isSharded(sweetId));
+        assertEquals(70, quantity());
+    }
+
+    @Test
+    void testTurningShardingOffMovesStockBack() {
+        stockEngine.setShardCount(sweetId, 4);
+        stockEngine.purchase(sweetId, 3);
+
+        stockEngine.setShardCount(sweetId, 0);
+
+        assertFalse(stockEngine.isSharded(sweetId));
+        assertTrue(shardRepository.findAll().isEmpty());
+        assertEquals(INITIAL_STOCK - 3, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+    }
+
+    private int quantity() {
+        Sweet sweet = sweetRepository.findById(sweetId).orElseThrow();
+        stockEngine.fillQuantities(List.of(sweet));
+        return sweet.getQuantity();
+    }
+}
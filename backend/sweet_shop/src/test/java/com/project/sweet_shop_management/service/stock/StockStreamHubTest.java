@@ -0,0 +1,211 @@
+package com.project.sweet_shop_management.service.stock;
+
+import com.project.sweet_shop_management.model.StockChange;
+import com.project.sweet_shop_management.model.Sweet;
+import com.project.sweet_shop_management.model.SweetCatalogEvent;
+import com.project.sweet_shop_management.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class StockStreamHubTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    private StockStreamHub hub;
+
+    // Quantities the mocked repository reads (1 if absent)
+    private final Map<Long, Integer> stock = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(sweetRepository.findAllById(anyCollection())).thenAnswer(inv -> {
+            List<Sweet> sweets = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(0)) {
+                Sweet sweet = new Sweet("Sweet " + id, "Indian", 10, stock.getOrDefault((Long) id, 1));
+                sweet.setId((Long) id);
+                sweets.add(sweet);
+            }
+            return sweets;
+        });
+        hub = new StockStreamHub(sweetRepository, stockEngine, Duration.ofMinutes(1), 2, 10, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testChangesAreCoalescedPerSweetAndReadAtDispatch() throws Exception {
+        CapturingEmitter client = new CapturingEmitter(null);
+        assertTrue(hub.subscribe(client));
+
+        // Two concurrent purchases whose events were published out of order
+        stock.put(1L, 4);
+        hub.onStockChange(new StockChange(1L, 4));
+        hub.onStockChange(new StockChange(1L, 5));
+        hub.dispatch();
+
+        String event = client.next();
+        assertTrue(event.contains("event:stock"));
+        assertTrue(event.contains("\"quantity\":4"));
+        assertFalse(event.contains("\"quantity\":5"));
+        verify(sweetRepository, times(1)).findAllById(List.of(1L));
+    }
+
+    @Test
+    void testUnknownQuantitiesAreReadInOneQuery() throws Exception {
+        Sweet sweet = new Sweet("Ladoo", "Indian", 20, 7);
+        sweet.setId(3L);
+        when(sweetRepository.findAllById(anyCollection())).thenReturn(List.of(sweet));
+        CapturingEmitter client = new CapturingEmitter(null);
+        hub.subscribe(client);
+
+        hub.onStockChange(StockChange.changed(3L));
+        hub.dispatch();
+
+        assertTrue(client.next().contains("\"quantity\":7"));
+        verify(sweetRepository, times(1)).findAllById(List.of(3L));
+        verify(stockEngine).fillQuantities(List.of(sweet));
+    }
+
+    @Test
+    void testSlowClientGetsResyncInsteadOfBacklog() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        CapturingEmitter slow = new CapturingEmitter(unblock);
+        hub.subscribe(slow);
+
+        hub.onStockChange(new StockChange(1L, 1));
+        hub.dispatch();
+        slow.awaitSending();
+
+        // Buffer holds 2 sweets; the third one overflows it while the client is stuck
+        for (long id = 2; id <= 4; id++) {
+            hub.onStockChange(new StockChange(id, 1));
+            hub.dispatch();
+        }
+        unblock.countDown();
+
+        assertTrue(slow.next().contains("event:stock"));
+        assertTrue(slow.next().contains("event:resync"));
+    }
+
+    @Test
+    void testReloadTellsEveryClientToResync() throws Exception {
+        CapturingEmitter first = new CapturingEmitter(null);
+        CapturingEmitter second = new CapturingEmitter(null);
+        hub.subscribe(first);
+        hub.subscribe(second);
+
+        hub.onCatalogChange(SweetCatalogEvent.reloaded());
+        hub.dispatch();
+
+        assertTrue(first.next().contains("event:resync"));
+        assertTrue(second.next().contains("event:resync"));
+    }
+
+    @Test
+    void testSubscribersAreCapped() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(hub.subscribe(new CapturingEmitter(null)));
+        }
+        assertFalse(hub.subscribe(new CapturingEmitter(null)));
+        hub.close();
+    }
+
+    @Test
+    void testCapHoldsUnderConcurrentSubscribes() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return hub.subscribe(new CapturingEmitter(null));
+            }));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(10, accepted);
+        assertEquals(10, hub.subscriberCount());
+        hub.close();
+    }
+
+    /**
+     * Records every event as text instead of writing to a response; optionally blocks
+     * the first send until released, like a client that stopped reading.
+     */
+    private static class CapturingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch unblock;
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        CapturingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (unblock != null) {
+                try {
+                    unblock.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(data -> data instanceof String text ? text : toJson(data))
+                    .collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event received");
+            return event;
+        }
+
+        void awaitSending() throws InterruptedException {
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+        }
+
+        private static String toJson(Object data) {
+            try {
+                return new MappingJackson2HttpMessageConverter().getObjectMapper().writeValueAsString(data);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import React, { useState, useEffect } from 'react';
+import { suggestSweets } from '../../services/sweet-service';
 
 const SearchAndFilter = ({ onSearch }) => {
     const [filters, setFilters] = useState({
@@ -9,6 +10,7 @@ const SearchAndFilter = ({ onSearch }) => {
     });
     const [isExpanded, setIsExpanded] = useState(false);
     const [hasActiveFilters, setHasActiveFilters] = useState(false);
+    const [suggestions, setSuggestions] = useState([]);
 
     const categories = [
         { value: 'Chocolate', icon: '🍫', color: 'from-yellow-600 to-brown-600' },
@@ -33,6 +35,19 @@ const SearchAndFilter = ({ onSearch }) => {
         setHasActiveFilters(active);
     }, [filters]);
 
+    useEffect(() => {
+        // Fetch name suggestions for the quick search box
+        if (!filters.name.trim()) {
+            setSuggestions([]);
+            return;
+        }
+        let cancelled = false;
+        suggestSweets(filters.name)
+            .then((data) => { if (!cancelled) setSuggestions(data); })
+            .catch(() => { if (!cancelled) setSuggestions([]); });
+        return () => { cancelled = true; };
+    }, [filters.name]);
+
     const handleFilterChange = (key, value) => {
         const newFilters = { ...filters, [key]: value };
         setFilters(newFilters);
@@ -97,8 +112,14 @@ const SearchAndFilter = ({ onSearch }) => {
                     value={filters.name}
                     onChange={(e) => handleFilterChange('name', e.target.value)}
                     placeholder="Search for sweets by name..."
+                    list="sweet-name-suggestions"
                     className="w-full bg-white/5 backdrop-blur-lg border border-white/10 rounded-2xl px-6 py-4 text-white placeholder-gray-400 focus:outline-none focus:border-purple-500 focus:ring-2 focus:ring-purple-500/20 transition-all duration-300 text-lg pr-12"
                 />
+                <datalist id="sweet-name-suggestions">
+                    {suggestions.map((suggestion) => (
+                        <option key={suggestion.id} value={suggestion.name} />
+                    ))}
+                </datalist>
                 <div className="absolute right-4 top-1/2 transform -translate-y-1/2 text-2xl">
                     🔍
                 </div>
@@ -1,6 +1,6 @@
 // src/components/user-routes/SweetList.jsx
 import React, { useState, useEffect } from 'react';
-import { getAllSweets, searchSweets, purchaseSweet } from '../../services/sweet-service';
+import { getAllSweets, searchSweets, purchaseSweet, subscribeStock } from '../../services/sweet-service';
 import { useAuth } from '../../context/AuthContext';
 import { toast } from 'react-toastify';
 import SweetCard from './SweetCard';
@@ -14,10 +14,20 @@ const SweetList = () => {
     const [viewMode, setViewMode] = useState('grid'); // 'grid' or 'list'
     const [sortBy, setSortBy] = useState('name'); // 'name', 'price', 'quantity'
     const [sortOrder, setSortOrder] = useState('asc'); // 'asc' or 'desc'
+    const [liveStock, setLiveStock] = useState({}); // id -> quantity pushed since the last load
     const { isAdmin, user } = useAuth();
 
     useEffect(() => {
         loadSweets();
+        // Quantities arrive over the stock stream instead of re-polling the whole list
+        return subscribeStock(
+            (changes) => setLiveStock(prev => {
+                const next = { ...prev };
+                changes.forEach(({ sweetId, quantity }) => { next[sweetId] = quantity; });
+                return next;
+            }),
+            () => loadSweets()
+        );
     }, []);
 
     useEffect(() => {
@@ -31,6 +41,7 @@ const SweetList = () => {
     const loadSweets = async () => {
         try {
             const data = await getAllSweets();
+            setLiveStock({});
             setSweets(data);
             applySorting(data);
         } catch (error) {
@@ -86,9 +97,9 @@ const SweetList = () => {
 
     const handlePurchase = async (sweetId, quantity) => {
         try {
-            await purchaseSweet(sweetId, quantity);
+            const updated = await purchaseSweet(sweetId, quantity);
             toast.success('🎉 Purchase successful! Enjoy your sweet treat!');
-            loadSweets(); // Reload to update quantities
+            setLiveStock(prev => ({ ...prev, [sweetId]: updated.quantity }));
         } catch (error) {
             toast.error('❌ Purchase failed. Please try again.');
             console.error('Purchase error:', error);
@@ -231,7 +242,7 @@ const SweetList = () => {
                     {filteredSweets.map(sweet => (
                         <SweetCard 
                             key={sweet.id} 
-                            sweet={sweet} 
+                            sweet={sweet.id in liveStock ? { ...sweet, quantity: liveStock[sweet.id] } : sweet} 
                             onPurchase={handlePurchase}
                             isAdmin={isAdmin}
                             onUpdate={loadSweets}
@@ -58,7 +58,8 @@ const UpdateSweet = () => {
                 name: data.name,
                 category: data.category,
                 price: data.price.toString(),
-                quantity: data.quantity.toString()
+                quantity: data.quantity.toString(),
+                editVersion: data.editVersion
             };
             setSweetData(formattedData);
             setOriginalData(formattedData);
@@ -91,6 +92,11 @@ const UpdateSweet = () => {
             toast.success('🎉 Sweet updated successfully! Your changes have been saved.');
             navigate('/private/sweets');
         } catch (error) {
+            if (error.response?.status === 409) {
+                toast.error('⚠️ This sweet was changed by someone else. Reloaded the latest values.');
+                loadSweetData();
+                return;
+            }
             toast.error('❌ Failed to update sweet. Please try again.');
             console.error('Update sweet error:', error);
         } finally {
@@ -1,4 +1,5 @@
-import { privateAxios } from "./helper";
+import { privateAxios, BASE_URL } from "./helper";
+import { getToken } from "../auth";
 
 // Get all sweets
 export const getAllSweets = () => {
@@ -44,4 +45,69 @@ export const searchSweets = (filters = {}) => {
         }
     });
     return privateAxios.get(`/api/sweets/search?${params}`).then((response) => response.data);
-}
\ No newline at end of file
+}
+
+// Name suggestions for the search box: [{ id, name }]
+export const suggestSweets = (prefix, limit = 8) => {
+    const params = new URLSearchParams({ prefix, limit });
+    return privateAxios.get(`/api/sweets/suggest?${params}`).then((response) => response.data);
+}
+
+// Purchase several sweets in one request: lines = [{ sweetId, quantity }]
+export const purchaseSweets = (lines) => {
+    return privateAxios.post('/api/sweets/purchase/batch', lines).then((response) => response.data);
+}
+
+// Live stock updates from GET /api/sweets/stream (server-sent events).
+// EventSource cannot send the bearer token, so the stream is read with fetch.
+// onStock gets [{ sweetId, quantity }]; onResync means the list should be reloaded.
+// Reconnects after errors; returns a function that closes the stream.
+export const subscribeStock = (onStock, onResync) => {
+    const controller = new AbortController();
+
+    const handle = (block) => {
+        let event = 'message';
+        let data = '';
+        block.split('\n').forEach(line => {
+            if (line.startsWith('event:')) event = line.slice(6).trim();
+            else if (line.startsWith('data:')) data += line.slice(5);
+        });
+        if (event === 'stock' && data) onStock(JSON.parse(data));
+        else if (event === 'resync') onResync();
+    };
+
+    const connect = async () => {
+        let reconnecting = false;
+        while (!controller.signal.aborted) {
+            try {
+                const response = await fetch(`${BASE_URL}/api/sweets/stream`, {
+                    headers: { Authorization: `Bearer ${getToken()}`, Accept: 'text/event-stream' },
+                    signal: controller.signal
+                });
+                if (!response.ok) throw new Error(`stream returned ${response.status}`);
+                // Anything may have changed while we were not connected
+                if (reconnecting) onResync();
+                reconnecting = true;
+                const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) break;
+                    buffer += value;
+                    let end;
+                    while ((end = buffer.indexOf('\n\n')) >= 0) {
+                        handle(buffer.slice(0, end));
+                        buffer = buffer.slice(end + 2);
+                    }
+                }
+            } catch (error) {
+                if (controller.signal.aborted) return;
+                console.error('Stock stream error:', error);
+            }
+            await new Promise(resolve => setTimeout(resolve, 5000));
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+}